@@ -1,6 +1,7 @@
 package labs.pm.app;
 
 import labs.pm.data.*;
+import labs.pm.utils.concurrent.ThreadMode;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -45,11 +46,21 @@ public class Shop {
 
         CommodityManager cm = CommodityManager.getInstance();
 
+        /**
+         * Workload shape: [threads] [clients] [products] [platform|virtual], defaults reproduce the original
+         * 4 x 24 x 3 run on a platform thread pool. Increase threads with a wider product range to watch how reviews
+         * of different SKUs scale. In virtual mode every client gets its own virtual thread and threads is ignored
+         */
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int clientsTotal = args.length > 1 ? Integer.parseInt(args[1]) : 24;
+        int productsRange = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        ThreadMode threadMode = args.length > 3 ? ThreadMode.of(args[3]) : ThreadMode.PLATFORM;
+
         AtomicInteger clientCount = new AtomicInteger(0);
         Callable<String> client = () -> {
             String clientId = "Client" + clientCount.incrementAndGet();
             String threadName = Thread.currentThread().getName();
-            int productId = ThreadLocalRandom.current().nextInt(3) + 1;
+            int productId = ThreadLocalRandom.current().nextInt(productsRange) + 1;
             int rating = ThreadLocalRandom.current().nextInt(5) + 1;
             String languageTag = CommodityManager.getSupportedLocales()
                     .stream()
@@ -73,12 +84,16 @@ public class Shop {
         };
 
         List<Callable<String>> clients = Stream.generate(() -> client)
-                .limit(24)
+                .limit(clientsTotal)
                 .collect(Collectors.toList());
-        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        ExecutorService executorService = threadMode == ThreadMode.PLATFORM
+                ? Executors.newFixedThreadPool(threads)
+                : threadMode.newThreadPerTaskExecutor("client");
 
         try {
+            long start = System.nanoTime();
             List<Future<String>> results = executorService.invokeAll(clients);
+            long elapsed = System.nanoTime() - start;
             executorService.shutdown();
             results.stream().forEach(result -> {
                 try {
@@ -87,6 +102,8 @@ public class Shop {
                     Logger.getLogger(Shop.class.getName()).log(Level.SEVERE, "Error retrieving client log " + e.getMessage(), e);
                 }
             });
+            System.out.printf("%d clients on %s in %d ms, %.1f clients/s%n", clientsTotal,
+                    threadMode == ThreadMode.PLATFORM ? threads + " threads" : "a thread per client", TimeUnit.NANOSECONDS.toMillis(elapsed), clientsTotal * 1e9 / elapsed);
         } catch (InterruptedException e) {
             Logger.getLogger(Shop.class.getName()).log(Level.SEVERE, "Error invoking clients " + e.getMessage(), e);
         }
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <h2>Parallel loader of the CSV catalog files</h2>
+ * <p>FileName: CatalogLoader.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 18:54</p>
+ * <p>Product and review files are parsed on a fork-join pool. Lines are split by hand on the ", " separator
+ * of product.data.format and review.data.format, numbers are parsed straight from the line without
+ * substrings, so no MessageFormat and almost no garbage per record.</p>
+ * <p>Product line: TYPE, id, name, price, rating, discount, bestBefore. The name may itself contain ", ",
+ * so the two leading and four trailing fields are cut first and the rest is the name.</p>
+ * @author agent
+ */
+
+class CatalogLoader {
+    private static final Logger logger = Logger.getLogger(CatalogLoader.class.getName());
+    private static final String SEPARATOR = ", ";
+
+    private final Path dataFolder;
+    private final String reviewsFile;
+    private final boolean resident;
+
+    private final LongAdder productsLoaded = new LongAdder();
+    private final LongAdder productsRejected = new LongAdder();
+    private final LongAdder reviewsLoaded = new LongAdder();
+    private final LongAdder reviewsRejected = new LongAdder();
+
+    /**
+     * @param dataFolder Path - folder with product{id}.csv and reviews{id}.csv files
+     * @param reviewsFile String - reviews.data.file pattern, {0} is replaced by the plain product id
+     * @param resident boolean - keep review bodies in memory, otherwise only count them
+     */
+    CatalogLoader(final Path dataFolder, final String reviewsFile, final boolean resident) {
+        this.dataFolder = dataFolder;
+        this.reviewsFile = reviewsFile;
+        this.resident = resident;
+    }
+
+    /**
+     * <p>Loads every product file of the data folder together with its reviews</p>
+     * @param pool ForkJoinPool - pool the files are parsed on
+     * @return Map - products with their reviews
+     * @throws IOException when the data folder can not be listed
+     */
+    Map<Product, ProductReviews> load(final ForkJoinPool pool) throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dataFolder)) {
+            files = list.filter(file -> file.getFileName().toString().startsWith("product"))
+                    .collect(Collectors.toList());
+        }
+        Map<Product, ProductReviews> products = new ConcurrentHashMap<>(Math.max(16, (int) (files.size() / 0.75f) + 1));
+        pool.submit(() -> files.parallelStream().forEach(file -> {
+            Product product = loadProduct(file);
+            if (product != null) products.put(product, loadReviews(product));
+        })).join();
+        return products;
+    }
+
+    /**
+     * <p>Loads and parses the reviews file of one product, an absent file means no reviews.
+     * Without resident reviews only the ratings are counted into a header-only instance</p>
+     * @param product Product - product whose reviews are loaded
+     * @return ProductReviews - never null
+     */
+    ProductReviews loadReviews(final Product product) {
+        ProductReviews reviews = resident ? new ProductReviews() : ProductReviews.header(ProductReviews.CSV_SOURCE);
+        readReviews(product, reviews, true);
+        return reviews;
+    }
+
+    /**
+     * <p>Loads all review bodies of one product from its reviews file, whatever the loading mode</p>
+     * @param product Product - product whose reviews are loaded
+     * @return ProductReviews - resident instance, never null
+     */
+    ProductReviews loadReviewBodies(final Product product) {
+        ProductReviews reviews = new ProductReviews();
+        readReviews(product, reviews, false);
+        return reviews;
+    }
+
+    private void readReviews(final Product product, final ProductReviews reviews, final boolean counted) {
+        Path file = dataFolder.resolve(reviewsFile.replace("{0}", String.valueOf(product.getId())));
+        if (Files.notExists(file)) return;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Review review = parseReview(line);
+                if (review != null) {
+                    if (reviews.isResident()) reviews.add(review);
+                    else reviews.tally(review.getRating());
+                    if (counted) reviewsLoaded.increment();
+                } else {
+                    if (counted) reviewsRejected.increment();
+                    logger.log(Level.WARNING, "Warning! Error parsing review \"" + line + "\" ");
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Warning! Error loading product review " + e.getMessage(), e);
+        }
+    }
+
+    long getProductsLoaded() {
+        return productsLoaded.sum();
+    }
+
+    long getProductsRejected() {
+        return productsRejected.sum();
+    }
+
+    long getReviewsLoaded() {
+        return reviewsLoaded.sum();
+    }
+
+    long getReviewsRejected() {
+        return reviewsRejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "Loaded " + getProductsLoaded() + " products, " + getReviewsLoaded() + " reviews; rejected "
+                + getProductsRejected() + " products, " + getReviewsRejected() + " reviews";
+    }
+
+    private Product loadProduct(final Path file) {
+        String line = null;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            line = reader.readLine();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Warning! Error loading product! " + e.getMessage(), e);
+        }
+        Product product = line == null ? null : parseProduct(line);
+        if (product != null) productsLoaded.increment();
+        else {
+            productsRejected.increment();
+            logger.log(Level.WARNING, "Warning! Error parsing product \"" + line + "\" in " + file.getFileName());
+        }
+        return product;
+    }
+
+    /**
+     * @param text String - review line "rating, comment"
+     * @return Review or null if the line is not a valid review
+     */
+    static Review parseReview(final String text) {
+        int separator = text.indexOf(SEPARATOR);
+        if (separator < 0) return null;
+        try {
+            int stars = Integer.parseInt(text, 0, separator, 10);
+            return new Review(Rateable.convert(stars), text.substring(separator + SEPARATOR.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param text String - product line "TYPE, id, name, price, rating, discount, bestBefore"
+     * @return Product or null if the line is not a valid product
+     */
+    static Product parseProduct(final String text) {
+        int typeEnd = text.indexOf(SEPARATOR);
+        if (typeEnd < 0) return null;
+        int idStart = typeEnd + SEPARATOR.length();
+        int idEnd = text.indexOf(SEPARATOR, idStart);
+        if (idEnd < 0) return null;
+        int nameStart = idEnd + SEPARATOR.length();
+        int bestBeforeStart = text.lastIndexOf(SEPARATOR) + SEPARATOR.length();
+        int discountStart = text.lastIndexOf(SEPARATOR, bestBeforeStart - SEPARATOR.length() - 1) + SEPARATOR.length();
+        int ratingStart = text.lastIndexOf(SEPARATOR, discountStart - SEPARATOR.length() - 1) + SEPARATOR.length();
+        int priceStart = text.lastIndexOf(SEPARATOR, ratingStart - SEPARATOR.length() - 1) + SEPARATOR.length();
+        int nameEnd = priceStart - SEPARATOR.length();
+        if (nameEnd < nameStart) return null;
+        try {
+            ProductType type = parseType(text, typeEnd);
+            if (type == null) return null;
+            int id = Integer.parseInt(text, idStart, idEnd, 10);
+            String name = text.substring(nameStart, nameEnd);
+            BigDecimal price = new BigDecimal(text.substring(priceStart, ratingStart - SEPARATOR.length()));
+            Rating rating = Rateable.convert(Integer.parseInt(text, ratingStart, discountStart - SEPARATOR.length(), 10));
+            BigDecimal discountRate = BigDecimal.valueOf(Integer.parseInt(text, discountStart, bestBeforeStart - SEPARATOR.length(), 10));
+            return switch (type) {
+                case DRINK -> new Drink(id, name, price, rating, discountRate);
+                case FOOD -> new Food(id, name, price, rating, discountRate, parseDate(text, bestBeforeStart, text.length()));
+                case NONFOOD -> new NonFood(id, name, price, rating, discountRate);
+            };
+        } catch (NumberFormatException | DateTimeException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static ProductType parseType(final String text, final int end) {
+        for (ProductType type : ProductType.values()) {
+            String name = type.name();
+            if (name.length() == end && text.regionMatches(0, name, 0, end)) return type;
+        }
+        return null;
+    }
+
+    /**
+     * ISO yyyy-MM-dd date, as LocalDate.toString() writes it
+     */
+    private static LocalDate parseDate(final String text, final int start, final int end) {
+        if (end - start != 10 || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-')
+            throw new DateTimeException("Not an ISO date " + text.substring(start, end));
+        return LocalDate.of(
+                Integer.parseInt(text, start, start + 4, 10),
+                Integer.parseInt(text, start + 5, start + 7, 10),
+                Integer.parseInt(text, start + 8, end, 10));
+    }
+}
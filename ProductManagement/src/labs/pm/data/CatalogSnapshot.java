@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * <h2>Versioned binary snapshot of the whole catalog</h2>
+ * <p>FileName: CatalogSnapshot.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 18:53</p>
+ * <p>Layout (big endian): magic, version, number of journal records already contained in the snapshot,
+ * product count, then every product followed by its reviews, then CRC32 of everything before it.
+ * Strings are stored as int length + UTF-8 bytes, prices as scale + unscaled value bytes. The file is streamed,
+ * not mapped, so it may grow past 2 GiB, and a field that does not fit its width fails the write.</p>
+ * @author agent
+ */
+
+class CatalogSnapshot {
+    static final int MAGIC = 0x504D4353;
+    static final short VERSION = 1;
+    private static final ProductType[] TYPES = ProductType.values();
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Logger logger = Logger.getLogger(CatalogSnapshot.class.getName());
+
+    /**
+     * Restored catalog state
+     */
+    final Map<Product, ProductReviews> products;
+    /**
+     * Number of leading journal records which are already part of the snapshot
+     */
+    final long journalRecords;
+    /**
+     * Snapshot file holding the review bodies of header-only products, opened for each load
+     */
+    private final Path file;
+    /**
+     * File key of the snapshot that was read, the offsets of the headers are wrong in a newer snapshot
+     * moved over the path
+     */
+    private final Object fileKey;
+
+    private CatalogSnapshot(final Map<Product, ProductReviews> products, final long journalRecords,
+                            final Path file, final Object fileKey) {
+        this.products = products;
+        this.journalRecords = journalRecords;
+        this.file = file;
+        this.fileKey = fileKey;
+    }
+
+    /**
+     * <p>Writes the snapshot to a temporary file, forces it to disk and atomically moves it over the target.
+     * The caller must keep the catalog unchanged while writing</p>
+     * @param target Path - snapshot file
+     * @param temp Path - temporary file
+     * @param products Map - catalog to save
+     * @param resident Function - resolves resident reviews of a product
+     * @param journalRecords long - number of journal records contained in the catalog
+     * @throws IOException when the snapshot can not be written
+     */
+    static void write(final Path target, final Path temp, final Map<Product, ProductReviews> products,
+                      final Function<Product, ProductReviews> resident, final long journalRecords) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(temp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024), crc));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(journalRecords);
+            out.writeInt(products.size());
+            for (Product product : products.keySet()) {
+                out.writeByte(ProductType.of(product).ordinal());
+                out.writeInt(product.getId());
+                writeString(out, product.getName());
+                out.writeByte(checkByte(product.getPrice().scale(), "price scale", product));
+                byte[] unscaled = product.getPrice().unscaledValue().toByteArray();
+                out.writeByte(checkByte(unscaled.length, "price length", product));
+                out.write(unscaled);
+                out.writeByte(product.getRating().ordinal());
+                out.writeInt(product.getPercentageDiscount());
+                out.writeLong(product.getBestBefore().toEpochDay());
+                ProductReviews reviews = resident.apply(product);
+                out.writeInt(reviews.size());
+                for (Review review : (Iterable<Review>) reviews.stream()::iterator) {
+                    out.writeByte(review.getRating().ordinal());
+                    writeString(out, review.getComment());
+                }
+            }
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, target, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Path sibling = target.resolveSibling(target.getFileName() + ".tmp");
+            Files.move(temp, sibling, REPLACE_EXISTING);
+            Files.move(sibling, target, ATOMIC_MOVE, REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * <p>Reads the snapshot sequentially, checking the CRC on the way. Without resident reviews only the ratings
+     * are counted and readReviews() loads the bodies later</p>
+     * @param file Path - snapshot file
+     * @param resident boolean - load review bodies
+     * @return CatalogSnapshot - restored products with their reviews
+     * @throws IOException when the snapshot is missing, damaged or of an unsupported version
+     */
+    static CatalogSnapshot read(final Path file, final boolean resident) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            Object fileKey = resident ? null : Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+            CRC32 crc = new CRC32();
+            Counter counter = new Counter(new CheckedInputStream(
+                    new BufferedInputStream(new ChannelInput(channel, 0), BUFFER_SIZE), crc));
+            DataInputStream in = new DataInputStream(counter);
+            if (channel.size() < 22 || in.readInt() != MAGIC) throw new IOException("Not a catalog snapshot " + file);
+            short version = in.readShort();
+            if (version != VERSION) throw new IOException("Unsupported catalog snapshot version " + version);
+            long journalRecords = in.readLong();
+            int count = in.readInt();
+            if (count < 0) throw new IOException("Damaged catalog snapshot " + file);
+            Map<Product, ProductReviews> products = new ConcurrentHashMap<>(Math.max(16, (int) (count / 0.75f) + 1));
+            for (int i = 0; i < count; i++) {
+                int typeIndex = in.readByte();
+                if (typeIndex < 0 || typeIndex >= TYPES.length) throw new IOException("Damaged catalog snapshot " + file);
+                int id = in.readInt();
+                String name = readString(in);
+                int scale = in.readByte();
+                byte[] unscaled = new byte[checkLength(in.readByte())];
+                in.readFully(unscaled);
+                BigDecimal price = new BigDecimal(new BigInteger(unscaled), scale);
+                Rating rating = Rateable.convert(in.readByte());
+                BigDecimal discountRate = BigDecimal.valueOf(in.readInt());
+                LocalDate bestBefore = LocalDate.ofEpochDay(in.readLong());
+                Product product = switch (TYPES[typeIndex]) {
+                    case DRINK -> new Drink(id, name, price, rating, discountRate);
+                    case FOOD -> new Food(id, name, price, rating, discountRate, bestBefore);
+                    case NONFOOD -> new NonFood(id, name, price, rating, discountRate);
+                };
+                long source = counter.position;
+                int reviewCount = in.readInt();
+                ProductReviews reviews;
+                if (resident) {
+                    reviews = new ProductReviews();
+                    readReviews(in, reviewCount, reviews);
+                } else {
+                    reviews = ProductReviews.header(source);
+                    for (int r = 0; r < reviewCount; r++) {
+                        reviews.tally(Rateable.convert(in.readByte()));
+                        in.skipNBytes(checkLength(in.readInt()));
+                    }
+                }
+                products.put(product, reviews);
+            }
+            int expected = (int) crc.getValue();
+            if (expected != in.readInt() || counter.position != channel.size())
+                throw new IOException("Damaged catalog snapshot " + file);
+            return new CatalogSnapshot(products, journalRecords, resident ? null : file, fileKey);
+        } catch (EOFException e) {
+            throw new IOException("Truncated catalog snapshot " + file, e);
+        }
+    }
+
+    /**
+     * <p>Loads the review bodies of a header-only product restored from this snapshot</p>
+     * @param source long - ProductReviews.getSource() of the header
+     * @return ProductReviews - resident instance, empty if the snapshot can not be read
+     */
+    ProductReviews readReviews(final long source) {
+        ProductReviews reviews = new ProductReviews();
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            if (fileKey != null && !fileKey.equals(Files.readAttributes(file, BasicFileAttributes.class).fileKey()))
+                throw new IOException("Catalog snapshot " + file + " was replaced");
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new ChannelInput(channel, source), 4096));
+            readReviews(in, in.readInt(), reviews);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error loading product reviews from the catalog snapshot " + e.getMessage(), e);
+        }
+        return reviews;
+    }
+
+    private static void readReviews(final DataInputStream in, final int count, final ProductReviews reviews) throws IOException {
+        for (int r = 0; r < count; r++) {
+            reviews.add(new Review(Rateable.convert(in.readByte()), readString(in)));
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String text) throws IOException {
+        byte[] bytes = (text == null ? "" : text).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        int length = checkLength(in.readInt());
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) throw new EOFException();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int checkLength(final int length) throws IOException {
+        if (length < 0) throw new IOException("Damaged catalog snapshot, negative length " + length);
+        return length;
+    }
+
+    private static int checkByte(final int value, final String what, final Product product) throws IOException {
+        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE)
+            throw new IOException("Product " + product.getId() + " " + what + " " + value + " does not fit the snapshot");
+        return value;
+    }
+
+    /**
+     * Stream of a file from a position by positional reads, several of them may read one channel at once
+     */
+    private static class ChannelInput extends InputStream {
+        private final FileChannel channel;
+        private long position;
+
+        private ChannelInput(final FileChannel channel, final long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            if (length == 0) return 0;
+            int read = channel.read(ByteBuffer.wrap(bytes, offset, length), position);
+            if (read > 0) position += read;
+            return read;
+        }
+    }
+
+    /**
+     * Counts the bytes consumed by the parser, the offset of the next field in the file
+     */
+    private static class Counter extends FilterInputStream {
+        private long position;
+
+        private Counter(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = in.read();
+            if (read >= 0) position++;
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            int read = in.read(bytes, offset, length);
+            if (read > 0) position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(final long count) throws IOException {
+            long skipped = in.skip(count);
+            position += skipped;
+            return skipped;
+        }
+    }
+}
@@ -19,29 +19,35 @@
 package labs.pm.data;
 
 import labs.pm.exceptions.CommodityManagerException;
+import labs.pm.utils.collections.IntHashMap;
+import labs.pm.utils.concurrent.StripedReadWriteLock;
+import labs.pm.utils.metrics.LatencyHistogram;
+import labs.pm.utils.metrics.Metrics;
 
 import java.io.*;
 import java.math.BigDecimal;
-import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.text.MessageFormat;
 import java.text.NumberFormat;
-import java.text.ParseException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.time.format.FormatStyle;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.math.BigDecimal.valueOf;
 import static java.time.LocalDate.now;
@@ -58,17 +64,77 @@ import static labs.pm.data.Rating.*;
  */
 
 public class CommodityManager {
-    private Map<Product, List<Review>> products = new HashMap<>();
+    private Map<Product, ProductReviews> products = new ConcurrentHashMap<>();
+    /**
+     * Primary key index over products, kept in sync with every put into the products map.
+     * New keys are added only under the catalog write lock, values are replaced under the product stripe write lock
+     */
+    private final IntHashMap<Product> productIndex = new IntHashMap<>();
     private final ResourceBundle config = ResourceBundle.getBundle("resources.config", Locale.getDefault());
-    private final MessageFormat reviewFormat = new MessageFormat(config.getString("review.data.format"));
-    private final MessageFormat productFormat = new MessageFormat(config.getString("product.data.format"));
-    private final Path reportsFolder = Path.of(config.getString("reports.folder"));
-    private final Path dataFolder = Path.of(config.getString("data.folder"));
-    private final Path tempFolder = Path.of(config.getString("temp.folder"));
+    private final Path reportsFolder = Path.of(setting("reports.folder"));
+    private final Path dataFolder = Path.of(setting("data.folder"));
+    private final Path tempFolder = Path.of(setting("temp.folder"));
+    private final Path snapshotFile = dataFolder.resolve(setting("snapshot.file"));
+    /**
+     * Catalog lock. Its write lock is taken only for structural changes (new product, reload),
+     * every other operation shares its read lock and synchronizes on the product stripes
+     */
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     private final Lock readLock = lock.readLock();
     private final Lock writeLock = lock.writeLock();
-    private static final CommodityManager instance = new CommodityManager();
+    /**
+     * Per product locks, so operations on different SKUs run in parallel
+     */
+    private final StripedReadWriteLock productLocks = new StripedReadWriteLock(
+            Integer.parseInt(setting("lock.stripes")));
+    /**
+     * Durable log of the reviews accepted since the catalog files were written
+     */
+    private ReviewJournal journal;
+    /**
+     * Cache of review bodies, null when all reviews are resident (reviews.cache.size=0).
+     * With the cache only product headers and rating aggregates stay in memory
+     */
+    private final ReviewCache reviewCache = Integer.parseInt(setting("reviews.cache.size")) > 0
+            ? new ReviewCache(Integer.parseInt(setting("reviews.cache.size")))
+            : null;
+    private final CatalogLoader loader = new CatalogLoader(
+            dataFolder, setting("reviews.data.file"), reviewCache == null);
+    /**
+     * Snapshot the header-only products were restored from, source of their review bodies
+     */
+    private CatalogSnapshot snapshot;
+    /**
+     * Rendered product reports per product and language tag, the least recently used ones are evicted
+     */
+    private final ReportCache reportCache = new ReportCache(Integer.parseInt(setting("report.cache.size")));
+    /**
+     * Writes the report files in the background, one write at a time per file
+     */
+    private final ReportWriter reportWriter = new ReportWriter(
+            Integer.parseInt(setting("report.queue.size")), Integer.parseInt(setting("report.cache.size")));
+    /**
+     * Precomputed getDiscounts() results, maintained on every product change
+     */
+    private final DiscountView discountView = new DiscountView(formatters.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().moneyFormat)));
+    /**
+     * Columnar copy of the catalog for filtered listings and summaries, null with catalog.columns=false.
+     * Maintained like the productIndex
+     */
+    private final ProductColumns columns = Boolean.parseBoolean(setting("catalog.columns")) ? new ProductColumns() : null;
+    /**
+     * Sorted indexes walked by listings in a ProductOrder, null with catalog.indexes=false
+     */
+    private final ProductIndexes indexes = Boolean.parseBoolean(setting("catalog.indexes")) ? new ProductIndexes() : null;
+    /**
+     * Catalog size from which listings scan, select the first page and sort on the common ForkJoinPool
+     */
+    private final int parallelThreshold = Integer.parseInt(setting("catalog.parallel.threshold"));
+    /**
+     * Food by the day its markdown or expiry is due, replaced in a batch at every local midnight
+     */
+    private final ExpirySchedule expiry = new ExpirySchedule(this::startDay);
 
     /**
      * HashMap containing all the localizations supported by the application
@@ -88,17 +154,108 @@ public class CommodityManager {
 
     private static final Logger logger = Logger.getLogger(CommodityManager.class.getName());
 
+    private static final LatencyHistogram findProductTime = operation("findProductById");
+    private static final LatencyHistogram findReviewsTime = operation("findProductReviews");
+    private static final LatencyHistogram reviewProductTime = operation("reviewProduct");
+    private static final LatencyHistogram changePriceTime = operation("changeProductPrice");
+    private static final LatencyHistogram getDiscountsTime = operation("getDiscounts");
+    private static final LatencyHistogram getProductsTime = operation("getProducts");
+    private static final LatencyHistogram getPriceSummaryTime = operation("getPriceSummary");
+    private static final LatencyHistogram printProductsTime = operation("printProducts");
+    private static final LatencyHistogram printReportTime = operation("printProductReport");
+    private static final LatencyHistogram loadAllDataTime = operation("loadAllData");
+    private static final LatencyHistogram restoreDataTime = operation("restoreData");
+    private static final LatencyHistogram startDayTime = operation("startDay");
+    private static final LatencyHistogram catalogReadWait = lockWait("catalog", "read");
+    private static final LatencyHistogram catalogWriteWait = lockWait("catalog", "write");
+    private static final LatencyHistogram productReadWait = lockWait("product", "read");
+    private static final LatencyHistogram productWriteWait = lockWait("product", "write");
+    private static final LatencyHistogram allProductsReadWait = lockWait("product", "read_all");
+
+    /**
+     * Declared after the logger, the formatters and the metrics, the constructor already uses them
+     */
+    private static final CommodityManager instance = new CommodityManager();
+
     /**
      * Default constructor method. Sets default locale
      */
     private CommodityManager() {
-        loadAllData();
+        long journaled = restoreData();
+        if (journaled < 0) loadAllData();
+        openJournal(Math.max(journaled, 0));
+        // a journal shorter than the snapshot was replayed whole, a new snapshot numbers its records again
+        if (journaled < 0 || journal != null && journal.records() < journaled) dumpData();
+        expiry.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            expiry.close();
+            dumpData();
+            reportWriter.close();
+            try {
+                if (journal != null) journal.close();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Error closing review journal " + e.getMessage(), e);
+            }
+        }));
     }
 
     public static CommodityManager getInstance() {
         return instance;
     }
 
+    /**
+     * <p>Configuration value, a "pm." prefixed system property overrides the one of config.properties
+     * (e.g. -Dpm.data.folder=/tmp/data for benchmarks)</p>
+     *
+     * @param key String - config.properties key
+     * @return String - configured value
+     */
+    private String setting(final String key) {
+        return System.getProperty("pm." + key, config.getString(key));
+    }
+
+    /**
+     * Latency histogram of one public CommodityManager operation
+     */
+    private static LatencyHistogram operation(final String name) {
+        return Metrics.histogram("pm_commodity_manager_seconds", "CommodityManager operation latency", "operation", name);
+    }
+
+    /**
+     * Histogram of the contended waits for one lock in one mode
+     */
+    private static LatencyHistogram lockWait(final String lock, final String mode) {
+        return Metrics.histogram("pm_lock_wait_seconds",
+                "Time waiting for a CommodityManager lock, only contended acquisitions are counted", "lock", lock, "mode", mode);
+    }
+
+    /**
+     * <p>Takes the lock, a timed wait is recorded only when the lock is not free. tryLock with a timeout keeps
+     * the fairness policy of the lock, the untimed one would let readers overtake a waiting writer</p>
+     *
+     * @param wait LatencyHistogram - receives the time spent waiting
+     */
+    private static void lock(final Lock lock, final LatencyHistogram wait) {
+        try {
+            if (lock.tryLock(0, TimeUnit.NANOSECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        wait.recordSince(start);
+    }
+
+    /**
+     * Catalog read lock and the read locks of all product stripes, the wait for the stripes is always recorded
+     */
+    private void lockAllRead() {
+        lock(readLock, catalogReadWait);
+        long start = System.nanoTime();
+        productLocks.lockAllRead();
+        allProductsReadWait.recordSince(start);
+    }
+
     /**
      * <p>Returns a set of string tags of all locales supported by the application
      * String tags are keys of HashMap</p>
@@ -111,22 +268,38 @@ public class CommodityManager {
     }
 
     /**
-     * @return
+     * <p>Statistics of the review cache, to size reviews.cache.size for the working set</p>
+     *
+     * @return Map - size, capacity, hits, misses and evictions; empty when all reviews are resident
+     */
+    public Map<String, Long> getReviewCacheStatistics() {
+        return reviewCache == null ? Map.of() : reviewCache.getStatistics();
+    }
+
+    /**
+     * <p>Sum of the discounts per product name and rating, formatted for the locale.
+     * A read of the precomputed view, the catalog is only scanned again after a clock dependent
+     * discount (Drink evening hours, Food last day) may have changed</p>
+     *
+     * @param languageTag String - supported language tag, ru-RU for unknown ones
+     * @return Map - immutable map of discounts
+     * @see DiscountView
      */
     public Map<String, String> getDiscounts(final String languageTag) {
-        try {
-            readLock.lock();
-        ResourceFormatter formatter = formatters.getOrDefault(languageTag, formatters.get("ru-RU"));
-        return products.keySet()
-                .stream()
-                .collect(Collectors.groupingBy(
-                        product -> product.getName() + "\t" + product.getRating().getStars() + " ",
-                        Collectors.collectingAndThen(
-                                Collectors.summingDouble(product -> product.getDiscount().doubleValue()),
-                                discount -> formatter.moneyFormat.format(discount))));
-        } finally {
-            readLock.unlock();
+        long start = System.nanoTime();
+        if (discountView.isStale()) {
+            try {
+                lockAllRead();
+                if (discountView.isStale()) discountView.rebuild(products.keySet());
+            } finally {
+                productLocks.unlockAllRead();
+                readLock.unlock();
+            }
         }
+        Map<String, String> discounts = discountView.get(languageTag);
+        if (discounts == null) discounts = discountView.get("ru-RU");
+        getDiscountsTime.recordSince(start);
+        return discounts;
     }
 
     /**
@@ -140,7 +313,7 @@ public class CommodityManager {
     public Product createNewProduct(final String name, final double price, final ProductType productType) {
         Product product = null;
         try {
-            writeLock.lock();
+            lock(writeLock, catalogWriteWait);
             product = switch (productType) {
                 case FOOD -> createNewFood(name, price);
                 case DRINK -> createNewDrink(name, price);
@@ -156,62 +329,371 @@ public class CommodityManager {
         return product;
     }
 
+    /**
+     * <p>Changes the price of the product</p>
+     *
+     * @param id    int - ID[SKU] product
+     * @param price BigDecimal - new price
+     * @return Product - re-priced product or null if there is no such product
+     */
+    public Product changeProductPrice(final int id, final BigDecimal price) {
+        long start = System.nanoTime();
+        Lock productLock = productLocks.forKey(id).writeLock();
+        try {
+            lock(readLock, catalogReadWait);
+            lock(productLock, productWriteWait);
+            Product product = getProduct(id);
+            Product newProduct = (Product) product.applyPrice(price);
+            replaceProduct(product, newProduct);
+            saveProduct(newProduct);
+            return newProduct;
+        } catch (CommodityManagerException e) {
+            logger.log(Level.INFO, e.getMessage());
+            return null;
+        } finally {
+            productLock.unlock();
+            readLock.unlock();
+            changePriceTime.recordSince(start);
+        }
+    }
+
     public Product findProductById(final int id) throws CommodityManagerException {
+        long start = System.nanoTime();
+        Lock productLock = productLocks.forKey(id).readLock();
         try {
-            readLock.lock();
-            return products
-                    .keySet()
-                    .stream()
-                    .filter(product -> product.getId() == id)
-                    .findFirst()
-                    .orElseThrow(() -> new CommodityManagerException("Wrong! Product item with id " + id + " no such!"));
+            lock(readLock, catalogReadWait);
+            lock(productLock, productReadWait);
+            return getProduct(id);
         } finally {
+            productLock.unlock();
             readLock.unlock();
+            findProductTime.recordSince(start);
         }
     }
 
+    /**
+     * <p>Reviews of the product ordered from the best rating to the worst</p>
+     *
+     * @param id int - ID[SKU] product
+     * @return List - immutable copy of the reviews
+     * @throws CommodityManagerException when there is no product with such id
+     */
+    public List<Review> findProductReviews(final int id) throws CommodityManagerException {
+        long start = System.nanoTime();
+        Lock productLock = productLocks.forKey(id).readLock();
+        try {
+            lock(readLock, catalogReadWait);
+            lock(productLock, productReadWait);
+            return getReviews(getProduct(id)).stream().collect(Collectors.toUnmodifiableList());
+        } finally {
+            productLock.unlock();
+            readLock.unlock();
+            findReviewsTime.recordSince(start);
+        }
+    }
+
+    /**
+     * <p>Applies a review to the product and returns once the review is durable in the journal.
+     * The wait for the group commit happens outside of all locks</p>
+     *
+     * @param id      int - ID[SKU] product
+     * @param rating  Rating - consumer rating
+     * @param comment String - consumer comment
+     * @return Product - reviewed product or null if there is no such product
+     */
     public Product reviewProduct(final int id, final Rating rating, final String comment) {
+        long start = System.nanoTime();
+        Lock productLock = productLocks.forKey(id).writeLock();
+        Product product;
+        CompletableFuture<Void> durable = null;
         try {
-            writeLock.lock();
-            return reviewProduct(findProductById(id), rating, comment);
+            lock(readLock, catalogReadWait);
+            lock(productLock, productWriteWait);
+            product = reviewProduct(getProduct(id), rating, comment);
+            if (journal != null) durable = journal.append(id, rating, comment);
         } catch (CommodityManagerException e) {
             logger.log(Level.INFO, e.getMessage());
+            reviewProductTime.recordSince(start);
             return null;
         } finally {
-            writeLock.unlock();
+            productLock.unlock();
+            readLock.unlock();
         }
+        if (durable != null) {
+            try {
+                durable.join();
+            } catch (CompletionException e) {
+                logger.log(Level.SEVERE, "Error journaling review of product " + id + " " + e.getCause().getMessage(), e);
+            }
+        }
+        reviewProductTime.recordSince(start);
+        return product;
     }
 
+    /**
+     * <p>Writes the product report for the client. The report is rendered only when the product or its reviews
+     * changed since the last request in the same language, the file itself is written in the background</p>
+     *
+     * @param id          int - ID[SKU] product
+     * @param languageTag String - supported language tag, ru-RU for unknown ones
+     * @param client      String - client name, part of the report file name
+     */
     public void printProductReport(final int id, final String languageTag, final String client) {
+        long start = System.nanoTime();
+        Lock productLock = productLocks.forKey(id).readLock();
+        String tag = formatters.containsKey(languageTag) ? languageTag : "ru-RU";
+        ReportCache.Version version;
+        String text;
         try {
-            readLock.lock();
-            printProductReport(findProductById(id), languageTag, client);
+            lock(readLock, catalogReadWait);
+            lock(productLock, productReadWait);
+            Product product = getProduct(id);
+            ProductReviews reviews = getReviews(product);
+            version = new ReportCache.Version(product, reviews.size(), LocalDate.now().toEpochDay());
+            text = reportCache.get(id, tag, version, () -> renderProductReport(product, reviews, formatters.get(tag)));
         } catch (CommodityManagerException e) {
             logger.log(Level.INFO, e.getLocalizedMessage() + "\n");
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, "Error printing product report " + e.getMessage(), e);
+            printReportTime.recordSince(start);
+            return;
+        } finally {
+            productLock.unlock();
+            readLock.unlock();
+        }
+        reportWriter.write(reportsFolder.resolve(
+                MessageFormat.format(setting("report.file"), String.valueOf(id), client)), version, text);
+        printReportTime.recordSince(start);
+    }
+
+    /**
+     * <p>Consistent listing of the catalog, filtered before it is sorted</p>
+     *
+     * @param filter Predicate - products to list
+     * @param sorter Comparator - order of the listing
+     * @return List - matching products
+     * @see #getProducts(ProductQuery)
+     */
+    public List<Product> getProducts(final Predicate<Product> filter, final Comparator<Product> sorter) {
+        return getProducts(filter, sorter, Integer.MAX_VALUE);
+    }
+
+    /**
+     * <p>Top-N listing</p>
+     *
+     * @param limit int - most products to return
+     * @see #getProducts(ProductQuery)
+     */
+    public List<Product> getProducts(final Predicate<Product> filter, final Comparator<Product> sorter, final int limit) {
+        return getProducts(ProductQuery.where(filter).orderBy(sorter).page(0, limit)).getProducts();
+    }
+
+    /**
+     * <p>One page of a consistent listing. The filter runs first, on the columns for a ProductFilter. A ProductOrder
+     * is not sorted at all, its index is walked over the range the filter allows and the walk stops at the end of
+     * the page. Any other order keeps only offset + limit products in a bounded heap, or sorts the matches when the
+     * page reaches that deep anyway. From catalog.parallel.threshold products up the scan, the heap and the sort run
+     * on the common ForkJoinPool</p>
+     *
+     * @param query ProductQuery - filter, order, offset and limit
+     * @return ProductPage - products of the page and the number of all matching products
+     */
+    public ProductPage getProducts(final ProductQuery query) {
+        long start = System.nanoTime();
+        try {
+            lockAllRead();
+            return query(query);
         } finally {
+            productLocks.unlockAllRead();
             readLock.unlock();
+            getProductsTime.recordSince(start);
         }
     }
 
     public void printProducts(Predicate<Product> filter, Comparator<Product> sorter, final String languageTag) {
+        printProducts(ProductQuery.where(filter).orderBy(sorter), languageTag);
+    }
+
+    /**
+     * <p>Prints one page of the listing line by line. Products are immutable, so they are formatted and printed
+     * after the catalog locks are released</p>
+     *
+     * @param query       ProductQuery - filter, order, offset and limit
+     * @param languageTag String - locale of the formatter
+     */
+    public void printProducts(final ProductQuery query, final String languageTag) {
+        long start = System.nanoTime();
+        ProductPage page;
+        try {
+            lockAllRead();
+            page = query(query);
+        } finally {
+            productLocks.unlockAllRead();
+            readLock.unlock();
+        }
+        ResourceFormatter formatter = formatters.getOrDefault(languageTag, formatters.get("ru-RU"));
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+        if (page.getProducts().isEmpty()) out.println("No product items");
+        for (Product product : page.getProducts()) out.println(formatter.formatProduct(product));
+        out.println();
+        out.flush();
+        printProductsTime.recordSince(start);
+    }
+
+    /**
+     * <p>Count and prices of the matching products, aggregated over the price column</p>
+     *
+     * @param filter ProductFilter - products to summarize
+     * @return PriceSummary - count, total, lowest, highest and average price
+     */
+    public PriceSummary getPriceSummary(final ProductFilter filter) {
+        long start = System.nanoTime();
         try {
-            readLock.lock();
-            ResourceFormatter formatter = formatters.getOrDefault(languageTag, formatters.get("ru-RU"));
-            String text = products.keySet()
-                    .stream()
-                    .sorted(sorter)
+            lockAllRead();
+            if (columns != null) {
+                int[] selection = new int[columns.size()];
+                return columns.summarize(selection, columns.select(filter, selection));
+            }
+            LongSummaryStatistics prices = scan()
                     .filter(filter)
-                    .map(p -> formatter.formatProduct(p))
-                    .collect(Collectors.joining(System.lineSeparator()));
-            if (!text.isEmpty()) System.out.println(text + System.lineSeparator());
-            else System.out.println("No product items" + System.lineSeparator());
+                    .mapToLong(Product::getPriceCents)
+                    .summaryStatistics();
+            return new PriceSummary(prices.getCount(), prices.getSum(), prices.getMin(), prices.getMax());
         } finally {
+            productLocks.unlockAllRead();
             readLock.unlock();
+            getPriceSummaryTime.recordSince(start);
         }
     }
 
+    /**
+     * Plans and runs the query, the caller must hold all product stripes
+     */
+    private ProductPage query(final ProductQuery query) {
+        Predicate<Product> filter = query.getFilter();
+        Comparator<Product> order = query.getOrder();
+        if (indexes != null && order instanceof ProductOrder) {
+            List<Product> walked = walk(filter, (ProductOrder) order, query.getOffset(), query.getLimit());
+            return new ProductPage(walked, query.getOffset(), count(filter));
+        }
+        List<Product> matching = select(filter);
+        int end = Math.min(query.end(), matching.size());
+        boolean parallel = matching.size() >= parallelThreshold;
+        List<Product> first;
+        if (end <= matching.size() / 4) {
+            first = (parallel ? matching.parallelStream() : matching.stream()).collect(TopK.of(order, end));
+        } else if (parallel) {
+            Product[] sorted = matching.toArray(new Product[0]);
+            Arrays.parallelSort(sorted, order);
+            first = Arrays.asList(sorted);
+        } else {
+            matching.sort(order);
+            first = matching;
+        }
+        int offset = Math.min(query.getOffset(), end);
+        return new ProductPage(new ArrayList<>(first.subList(offset, end)), query.getOffset(), matching.size());
+    }
+
+    /**
+     * Walks the index of the order over the range a ProductFilter allows on the indexed value, any other
+     * predicate is tested on every product of the index. The first offset matches are only counted
+     */
+    private List<Product> walk(final Predicate<Product> filter, final ProductOrder order, final int offset,
+                               final int limit) {
+        List<Product> result = new ArrayList<>(Math.min(limit, 1024));
+        if (limit <= 0) return result;
+        ProductOrder.Key key = order.getKey();
+        ProductFilter bounds = filter instanceof ProductFilter ? (ProductFilter) filter : ProductFilter.all();
+        int[] skip = {offset};
+        indexes.get(key).walk(bounds.lowerBound(key), bounds.upperBound(key), order.isDescending(), id -> {
+            Product product = productIndex.get(id);
+            if (!filter.test(product)) return true;
+            if (skip[0] > 0) skip[0]--;
+            else result.add(product);
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    /**
+     * Products matching the filter in no particular order, from the columns for a ProductFilter.
+     * The caller must hold all product stripes
+     *
+     * @return List - new mutable list
+     */
+    private List<Product> select(final Predicate<Product> filter) {
+        if (columns != null && filter instanceof ProductFilter) {
+            int[] selection = new int[columns.size()];
+            return columns.materialize(selection, columns.select((ProductFilter) filter, selection));
+        }
+        return scan().filter(filter).collect(Collectors.toList());
+    }
+
+    /**
+     * Number of products matching the filter, the caller must hold all product stripes
+     */
+    private int count(final Predicate<Product> filter) {
+        if (columns != null && filter instanceof ProductFilter) {
+            return columns.select((ProductFilter) filter, new int[columns.size()]);
+        }
+        return (int) scan().filter(filter).count();
+    }
+
+    /**
+     * @return Stream - the listed catalog, without expired products, parallel from catalog.parallel.threshold
+     * products up
+     */
+    private Stream<Product> scan() {
+        Stream<Product> catalog = products.size() >= parallelThreshold
+                ? products.keySet().parallelStream()
+                : products.keySet().stream();
+        return catalog.filter(product -> !product.isExpired());
+    }
+
+    /**
+     * <p>Day boundary of the expiry schedule: Food on its last day is replaced by a marked down copy, expired Food
+     * by a copy that leaves the listings. One batch under the catalog write lock, so no listing sees half of it.
+     * The due buckets are taken under the lock too, a product replaced meanwhile cannot land in a drained bucket</p>
+     *
+     * @param day long - epoch day that has begun
+     */
+    private void startDay(final long day) {
+        long start = System.nanoTime();
+        int markedDown = 0;
+        int retired = 0;
+        lock(writeLock, catalogWriteWait);
+        try {
+            List<Integer> due = expiry.due(day);
+            if (due.isEmpty()) return;
+            for (int id : due) {
+                Product product = productIndex.get(id);
+                if (!(product instanceof Food)) continue;
+                Food food = ((Food) product).refresh();
+                replaceProduct(product, food);
+                if (food.isExpired()) {
+                    if (columns != null) columns.remove(id);
+                    retired++;
+                } else markedDown++;
+            }
+        } finally {
+            writeLock.unlock();
+            startDayTime.recordSince(start);
+        }
+        logger.log(Level.INFO, "Day " + LocalDate.ofEpochDay(day) + ": marked down " + markedDown
+                + ", retired " + retired + " expired products");
+    }
+
+    /**
+     * Index lookup without locking, the caller must hold the catalog lock and the product stripe
+     *
+     * @param id int - ID[SKU] product
+     * @return Product - current instance of the product
+     * @throws CommodityManagerException when there is no product with such id
+     */
+    private Product getProduct(final int id) throws CommodityManagerException {
+        Product product = productIndex.get(id);
+        if (product == null) throw new CommodityManagerException("Wrong! Product item with id " + id + " no such!");
+        return product;
+    }
+
     /**
      * Helper method for createNewProduct ()
      *
@@ -252,19 +734,45 @@ public class CommodityManager {
     }
 
     private void dumpProduct(Product product) {
-        products.put(product, new ArrayList<>());
+        products.put(product, reviewCache == null ? new ProductReviews() : ProductReviews.header(ProductReviews.CSV_SOURCE));
+        productIndex.put(product.getId(), product);
+        if (columns != null) columns.add(product);
+        if (indexes != null && !product.isExpired()) indexes.add(product);
+        expiry.add(product);
+        discountView.update(product);
+        saveProduct(product);
+    }
+
+    /**
+     * Moves the reviews of a product to its new instance and keeps the indexes and views in sync,
+     * the caller must hold the product stripe write lock
+     */
+    private void replaceProduct(final Product product, final Product newProduct) {
+        ProductReviews reviews = products.remove(product);
+        products.put(newProduct, reviews);
+        productIndex.put(newProduct.getId(), newProduct);
+        if (columns != null) columns.update(newProduct);
+        if (indexes != null) {
+            if (newProduct.isExpired()) indexes.remove(product);
+            else indexes.replace(product, newProduct);
+        }
+        expiry.add(newProduct);
+        discountView.update(newProduct);
+    }
+
+    private void saveProduct(final Product product) {
         Path productFile = dataFolder.resolve(
-                MessageFormat.format(config.getString("product.data.file"), product.getId()));
-        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(
-                Files.newOutputStream(productFile, StandardOpenOption.CREATE), "UTF-8"))) {
+                MessageFormat.format(setting("product.data.file"), String.valueOf(product.getId())));
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(Files.newOutputStream(productFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), "UTF-8"))) {
             String productSaveFormat = MessageFormat.format(
-                    config.getString("product.data.format"),
+                    setting("product.data.format"),
                     product.getClass().getSimpleName().toString().toUpperCase(),
-                    product.getId(),
+                    String.valueOf(product.getId()),
                     product.getName(),
                     product.getPrice().toString(),
                     product.getRating().ordinal(),
-                    product.getPercentageDiscount(),
+                    String.valueOf(product.getPercentageDiscount()),
                     product.getBestBefore().toString());
             out.append(productSaveFormat);
         } catch (IOException e) {
@@ -273,131 +781,161 @@ public class CommodityManager {
     }
 
     private void loadAllData() {
+        long start = System.nanoTime();
+        int parallelism = Integer.parseInt(setting("loader.parallelism"));
+        ForkJoinPool pool = parallelism > 0 ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
         try {
-            products = Files.list(dataFolder)
-                    .filter(file -> file.getFileName().toString().startsWith("product"))
-                    .map(file -> loadProduct(file))
-                    .filter(product -> product != null)
-                    .collect(Collectors.toMap(product -> product, product -> loadReviews(product)));
+            products = loader.load(pool);
+            indexProducts();
+            logger.log(Level.INFO, loader.toString());
         } catch (IOException e) {
             logger.log(Level.SEVERE, "Error loading all data " + e.getMessage(), e);
+        } finally {
+            if (pool != ForkJoinPool.commonPool()) pool.shutdown();
+            loadAllDataTime.recordSince(start);
         }
     }
 
-    private List<Review> loadReviews(Product product) {
-        List<Review> reviews = null;
-        Path reviewFile = dataFolder.resolve(
-                MessageFormat.format(config.getString("reviews.data.file"), product.getId()));
-        if (Files.notExists(reviewFile)) reviews = new ArrayList<>();
-        else {
-            try {
-                reviews = Files.lines(reviewFile, Charset.forName("UTF-8"))
-                        .map(text -> parseReview(text))
-                        .filter(review -> review != null)
-                        .sorted((p1, p2) -> p2.getRating().ordinal() - p1.getRating().ordinal())
-                        .collect(Collectors.toList());
-            } catch (IOException e) {
-                logger.log(Level.SEVERE, "Warning! Error loading product review " + e.getMessage(), e);
-            }
+    /**
+     * Opens the review journal and replays it on top of the loaded catalog
+     *
+     * @param skip long - number of leading journal records the loaded catalog already contains
+     */
+    private void openJournal(final long skip) {
+        try {
+            journal = new ReviewJournal(
+                    dataFolder.resolve(setting("reviews.journal.file")),
+                    Integer.parseInt(setting("journal.batch.size")),
+                    Long.parseLong(setting("journal.flush.interval")));
+            long replayed = journal.replay(skip, (id, rating, comment) -> {
+                Product product = productIndex.get(id);
+                if (product != null) reviewProduct(product, rating, comment);
+                else logger.log(Level.WARNING, "Warning! Journal review of unknown product " + id);
+            });
+            logger.log(Level.INFO, "Replayed " + replayed + " journaled reviews");
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error opening review journal, reviews will not be durable " + e.getMessage(), e);
+            journal = null;
         }
-        return reviews;
     }
 
-    private Product loadProduct(Path file) {
-        Product product = null;
-        try {
-            product = parseProduct(
-                    Files.lines(dataFolder.resolve(file), Charset.forName("UTF-8"))
-                            .findFirst().orElseThrow());
-        } catch (Exception e) {
-            logger.log(Level.WARNING, "Warning! Error loading product! " + e.getMessage(), e);
-        }
-        return product;
+    /**
+     * <p>Resident reviews of the product. Review bodies of a header-only product come from the review cache,
+     * the caller must hold the catalog lock and the product stripe</p>
+     *
+     * @param product Product - current instance of the product
+     * @return ProductReviews - resident reviews
+     */
+    private ProductReviews getReviews(final Product product) {
+        ProductReviews reviews = products.get(product);
+        if (reviews.isResident()) return reviews;
+        return reviewCache.get(product.getId(), () -> loadReviewBodies(product, reviews));
     }
 
-    private Review parseReview(String text) {
-        Review review = null;
-        try {
-            Object[] value = reviewFormat.parse(text);
-            review = new Review(Rateable.convert(Integer.parseInt((String) value[0])), (String) value[1]);
-        } catch (ParseException | NumberFormatException e) {
-            logger.log(Level.WARNING, "Warning! Error parsing review \"" + text + "\" ");
-        }
-        return review;
+    /**
+     * Review bodies of a header-only product: its snapshot or CSV reviews plus the ones added since loading
+     */
+    private ProductReviews loadReviewBodies(final Product product, final ProductReviews header) {
+        ProductReviews bodies = header.getSource() == ProductReviews.CSV_SOURCE
+                ? loader.loadReviewBodies(product)
+                : snapshot.readReviews(header.getSource());
+        header.getPending().forEach(bodies::add);
+        return bodies;
     }
 
-    private Product parseProduct(String text) {
-        Product product = null;
-        try {
-            Object[] value = productFormat.parse(text);
-            ProductType productType = ProductType.valueOf((String) value[0]);
-            int id = Integer.parseInt((String) value[1]);
-            String name = (String) value[2];
-            BigDecimal price = new BigDecimal((String) value[3]);
-            Rating rating = Rateable.convert(Integer.parseInt((String) value[4]));
-            BigDecimal discountRate = new BigDecimal((String) value[5]);
-            LocalDate bestBefore = LocalDate.now();
-            if (productType == ProductType.FOOD) bestBefore = LocalDate.parse((String) value[6]);
-            product = switch (productType) {
-                case DRINK -> new Drink(id, name, price, rating, discountRate);
-                case FOOD -> new Food(id, name, price, rating, discountRate, bestBefore);
-                case NONFOOD -> new NonFood(id, name, price, rating, discountRate);
-            };
-        } catch (ParseException | NumberFormatException | DateTimeParseException e) {
-            logger.log(Level.WARNING, "Warning! Error parsing product \"" + text + "\" " + e.getLocalizedMessage());
-        } catch (IllegalArgumentException e) {
-            logger.log(Level.WARNING, "Warning! Product type not correct to  \"" + text + "\" " + e.getLocalizedMessage());
-        }
-        return product;
+    private void indexProducts() {
+        productIndex.clear();
+        products.keySet().forEach(product -> productIndex.put(product.getId(), product));
+        List<Product> listed = products.keySet().stream()
+                .filter(product -> !product.isExpired())
+                .collect(Collectors.toList());
+        if (columns != null) columns.rebuild(listed);
+        if (indexes != null) indexes.rebuild(listed);
+        expiry.rebuild(products.keySet());
     }
 
     private Product reviewProduct(final Product product, final Rating rating, final String comment) {
-        List<Review> reviews = products.get(product);
-        products.remove(product, reviews);
-        reviews.add(new Review(rating, comment));
-        Collections.sort(reviews);
-        Product newProduct = product.applyRating(
-                Rateable.convert(
-                        (int) Math.round(
-                                reviews.stream()
-                                        .mapToInt(review -> review.getRating().ordinal())
-                                        .average()
-                                        .orElse(0))));
-        products.put(newProduct, reviews);
+        ProductReviews reviews = products.get(product);
+        Review review = new Review(rating, comment);
+        reviews.add(review);
+        if (!reviews.isResident()) {
+            ProductReviews cached = reviewCache.peek(product.getId());
+            if (cached != null) cached.add(review);
+        }
+        Rating newRating = reviews.getRating();
+        if (newRating == product.getRating()) return product;
+        Product newProduct = product.applyRating(newRating);
+        replaceProduct(product, newProduct);
         return newProduct;
     }
 
-    private void printProductReport(final Product product, final String languageTag, final String client) throws IOException {
-        ResourceFormatter formatter = formatters.getOrDefault(languageTag, formatters.get("ru-RU"));
-        List<Review> reviews = products.get(product);
-        Path reportFile = reportsFolder.resolve(
-                MessageFormat.format(config.getString("report.file"), product.getId(), client));
-        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(
-                Files.newOutputStream(reportFile, StandardOpenOption.CREATE), "UTF-8"))) {
-            out.append(formatter.formatProduct(product) + System.lineSeparator());
-            if (reviews.isEmpty()) {
-                out.append(formatter.getText("no.reviews"));
-            } else {
-                out.append(reviews.stream()
-                        .map(review -> formatter.formatReviews(review) + System.lineSeparator())
-                        .collect(Collectors.joining()));
-            }
+    private String renderProductReport(final Product product, final ProductReviews reviews, final ResourceFormatter formatter) {
+        StringBuilder out = new StringBuilder(formatter.formatProduct(product)).append(System.lineSeparator());
+        if (reviews.isEmpty()) {
+            out.append(formatter.getText("no.reviews"));
+        } else {
+            reviews.stream().forEach(review -> out.append(formatter.formatReviews(review)).append(System.lineSeparator()));
         }
+        return out.toString();
     }
 
     /**
-     * TO DO : Make serialisation method logic
+     * <p>Saves the whole catalog with reviews as a binary snapshot, written through the temp folder
+     * and atomically moved into the data folder. Reviewers are held off while it is written,
+     * so the snapshot and the journal position stored in it match. The journal records it contains are then
+     * compacted away</p>
+     *
+     * @see CatalogSnapshot
      */
     private void dumpData() {
-
+        if (journal == null) {
+            logger.log(Level.WARNING, "Warning! Catalog snapshot skipped, review journal position unknown");
+            return;
+        }
+        try {
+            lockAllRead();
+            long journaled = journal.records();
+            Path tempFile = tempFolder.resolve(MessageFormat.format(setting("temp.file"), "catalog"));
+            CatalogSnapshot.write(snapshotFile, tempFile, products, product -> {
+                ProductReviews reviews = products.get(product);
+                if (reviews.isResident()) return reviews;
+                ProductReviews cached = reviewCache.peek(product.getId());
+                return cached != null ? cached : loadReviewBodies(product, reviews);
+            }, journaled);
+            try {
+                journal.compact(journaled);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Error compacting review journal " + e.getMessage(), e);
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error saving catalog snapshot " + e.getMessage(), e);
+        } finally {
+            productLocks.unlockAllRead();
+            readLock.unlock();
+        }
     }
 
     /**
-     * TO DO : Make deserialisation method logic
+     * <p>Loads the catalog from the binary snapshot, any failure to read it falls back to the CSV files</p>
+     *
+     * @return long - number of journal records contained in the snapshot, -1 if the snapshot
+     * is missing or unusable and the catalog has to be loaded from the CSV files
      */
-    @SuppressWarnings("unchecked")
-    private void restoreData() {
-
+    private long restoreData() {
+        if (Files.notExists(snapshotFile)) return -1;
+        long start = System.nanoTime();
+        try {
+            CatalogSnapshot snapshot = CatalogSnapshot.read(snapshotFile, reviewCache == null);
+            products = snapshot.products;
+            if (reviewCache != null) this.snapshot = snapshot;
+            indexProducts();
+            return snapshot.journalRecords;
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Warning! Catalog snapshot not loaded, falling back to CSV " + e.getMessage(), e);
+            return -1;
+        } finally {
+            restoreDataTime.recordSince(start);
+        }
     }
 
     private static class ResourceFormatter {
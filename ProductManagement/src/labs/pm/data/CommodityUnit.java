@@ -54,10 +54,11 @@ interface CommodityUnit {
 
     /**
      * <h2>Returns the price of a commodity unit taking into account the current or personal discount</h2>
+     * <p>Precomputed, the call does not allocate</p>
      *
-     * @return BigDecimal final price
+     * @return Money final price
      */
-    BigDecimal getDiscount();
+    Money getDiscount();
 
     /**
      * <h2>Returns the amount of the discount in %</h2>
@@ -106,11 +107,14 @@ interface CommodityUnit {
      *
      * @return Reference to a String object JSON string type, example:
      * <p>{</p>
-     * <p>  id: 1,</p>
-     * <p>  title: "Tea",</p>
-     * <p>  price: 89.99,</p>
-     * <p>  basic_discount: 9.00,</p>
-     * <p>  current_consumer_rating: 0</p>
+     * <p>  "id": 1,</p>
+     * <p>  "type": "DRINK",</p>
+     * <p>  "title": "Tea",</p>
+     * <p>  "price": 89.99,</p>
+     * <p>  "basic_discount": 9.00,</p>
+     * <p>  "percentage_discount": 10,</p>
+     * <p>  "current_consumer_rating": 0,</p>
+     * <p>  "best_before": "2021-04-30"</p>
      * <p>}</p>
      * @see <a href="#{@link https://www.json.org/json-ru.html}">JSON</a>
      */
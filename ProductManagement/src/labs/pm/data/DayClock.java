@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * <h2>Local date and time of day without allocating</h2>
+ * <p>FileName: DayClock.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 19:58</p>
+ * <p>LocalDate.now() and LocalTime.now() create objects and look up the zone rules on every call. The offset of
+ * the system zone only changes at a transition (daylight saving time), so it is cached with the instant of the
+ * next transition and the local day and time are computed from System.currentTimeMillis(). The cache is replaced,
+ * one small object, when a transition passes or the clock is set back.</p>
+ *
+ * @author agent
+ */
+
+final class DayClock {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private static volatile Offset offset = offset(System.currentTimeMillis());
+
+    private DayClock() {
+    }
+
+    /**
+     * @return long - today as LocalDate.toEpochDay() in the system zone
+     */
+    static long epochDay() {
+        return Math.floorDiv(localMillis(), MILLIS_PER_DAY);
+    }
+
+    /**
+     * @return long - milliseconds since the local midnight in the system zone
+     */
+    static long millisOfDay() {
+        return Math.floorMod(localMillis(), MILLIS_PER_DAY);
+    }
+
+    private static long localMillis() {
+        long now = System.currentTimeMillis();
+        Offset current = offset;
+        if (now < current.from || now >= current.until) offset = current = offset(now);
+        return now + current.millis;
+    }
+
+    private static Offset offset(final long now) {
+        ZoneRules rules = ZoneId.systemDefault().getRules();
+        Instant instant = Instant.ofEpochMilli(now);
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        return new Offset(rules.getOffset(instant).getTotalSeconds() * 1000L, now,
+                next == null ? Long.MAX_VALUE : next.getInstant().toEpochMilli());
+    }
+
+    /**
+     * Zone offset valid from one instant until another
+     */
+    private static class Offset {
+        private final long millis;
+        private final long from;
+        private final long until;
+
+        private Offset(final long millis, final long from, final long until) {
+            this.millis = millis;
+            this.from = from;
+            this.until = until;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import labs.pm.utils.collections.IntHashMap;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <h2>Materialized view of the catalog discounts per supported locale</h2>
+ * <p>FileName: DiscountView.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 18:58</p>
+ * <p>Discounts are summed in cents per "name\tstars " key, exactly like getDiscounts() groups them.
+ * A created, re-rated or re-priced product only moves its own contribution between two keys, and only those
+ * keys are formatted again. Readers get a precomputed immutable map per locale, republished on the first read
+ * after a change.</p>
+ * <p>Discounts of Drink (evening hours) depend on the clock, so the view is only valid until the next such
+ * boundary and has to be rebuilt after it. Food on its last day arrives as an update from the expiry schedule.</p>
+ * @author agent
+ */
+
+class DiscountView {
+    private static final LocalTime[] BOUNDARIES = {LocalTime.of(19, 30), LocalTime.of(21, 30)};
+
+    private final Map<String, NumberFormat> moneyFormats;
+    private final IntHashMap<Contribution> contributions = new IntHashMap<>();
+    private final Map<String, Group> groups = new HashMap<>();
+    private final Map<String, Map<String, String>> formatted = new HashMap<>();
+    /**
+     * Immutable maps handed out to readers, null after a change until the next read
+     */
+    private volatile Map<String, Map<String, String>> published;
+    private volatile long validUntil;
+
+    /**
+     * @param moneyFormats Map - currency format per language tag, copied for the exclusive use of the view
+     */
+    DiscountView(final Map<String, NumberFormat> moneyFormats) {
+        this.moneyFormats = moneyFormats.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> (NumberFormat) entry.getValue().clone()));
+        this.moneyFormats.keySet().forEach(tag -> formatted.put(tag, new HashMap<>()));
+    }
+
+    /**
+     * @return true when a clock dependent discount may have changed since the last rebuild
+     */
+    boolean isStale() {
+        return System.currentTimeMillis() >= validUntil;
+    }
+
+    /**
+     * <p>Recomputes the view from the whole catalog, the catalog must not change meanwhile</p>
+     * @param products Collection - all products
+     */
+    synchronized void rebuild(final Collection<Product> products) {
+        long now = System.currentTimeMillis();
+        contributions.clear();
+        groups.clear();
+        formatted.values().forEach(Map::clear);
+        for (Product product : products) {
+            Contribution contribution = new Contribution(product);
+            contributions.put(product.getId(), contribution);
+            groups.computeIfAbsent(contribution.key, key -> new Group()).add(contribution, 1);
+        }
+        groups.forEach((key, group) -> format(key, group.cents));
+        published = null;
+        validUntil = nextBoundary(now);
+    }
+
+    /**
+     * <p>Moves the contribution of a product to its new state</p>
+     * @param product Product - new instance of a created or changed product
+     */
+    synchronized void update(final Product product) {
+        Contribution contribution = new Contribution(product);
+        Contribution previous = contributions.put(product.getId(), contribution);
+        if (previous != null) {
+            if (previous.key.equals(contribution.key) && previous.cents == contribution.cents) return;
+            Group group = groups.get(previous.key);
+            group.add(previous, -1);
+            if (group.members == 0) {
+                groups.remove(previous.key);
+                formatted.values().forEach(values -> values.remove(previous.key));
+            } else format(previous.key, group.cents);
+        }
+        Group group = groups.computeIfAbsent(contribution.key, key -> new Group());
+        group.add(contribution, 1);
+        format(contribution.key, group.cents);
+        published = null;
+    }
+
+    /**
+     * @param languageTag String - supported language tag
+     * @return Map - immutable discounts per "name\tstars " key, null for an unknown language tag
+     */
+    Map<String, String> get(final String languageTag) {
+        Map<String, Map<String, String>> current = published;
+        if (current == null) current = publish();
+        return current.get(languageTag);
+    }
+
+    private void format(final String key, final long cents) {
+        BigDecimal amount = BigDecimal.valueOf(cents, 2);
+        moneyFormats.forEach((tag, format) -> formatted.get(tag).put(key, format.format(amount)));
+    }
+
+    private synchronized Map<String, Map<String, String>> publish() {
+        if (published == null) {
+            published = formatted.entrySet().stream()
+                    .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> Map.copyOf(entry.getValue())));
+        }
+        return published;
+    }
+
+    private static long nextBoundary(final long now) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime current = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), zone);
+        LocalDate today = current.toLocalDate();
+        return Stream.concat(
+                        Stream.of(BOUNDARIES).map(today::atTime),
+                        Stream.of(today.plusDays(1).atStartOfDay()))
+                .filter(boundary -> boundary.isAfter(current))
+                .findFirst()
+                .orElseThrow()
+                .atZone(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Sum of the discounts of all products sharing one key
+     */
+    private static class Group {
+        private long cents;
+        private int members;
+
+        private void add(final Contribution contribution, final int sign) {
+            cents += sign * contribution.cents;
+            members += sign;
+        }
+    }
+
+    private static class Contribution {
+        private final String key;
+        private final long cents;
+
+        private Contribution(final Product product) {
+            this.key = product.getName() + "\t" + product.getRating().getStars() + " ";
+            this.cents = product.getDiscount().cents();
+        }
+    }
+}
@@ -2,13 +2,9 @@ package labs.pm.data;
 
 import java.math.BigDecimal;
 import java.sql.Driver;
-import java.time.LocalTime;
 
-import static java.math.BigDecimal.ZERO;
 import static java.math.BigDecimal.valueOf;
-import static java.time.LocalTime.now;
 import static java.time.LocalTime.of;
-import static java.math.RoundingMode.HALF_UP;
 /**
  * <p>ProductManagement Created by Home Work Studio AndrHey [andreigp]</p>
  * <p>FileName: Drink.java</p>
@@ -19,6 +15,12 @@ import static java.math.RoundingMode.HALF_UP;
  */
 
 public class Drink extends Product {
+    /**
+     * Evening hours with the discount, exclusive, as milliseconds of the day
+     */
+    private static final long HAPPY_HOURS_START = of(19, 30).toSecondOfDay() * 1000L;
+    private static final long HAPPY_HOURS_END = of(21, 30).toSecondOfDay() * 1000L;
+
     /**
      * <h2>This constructor is used to create an object of an existing product obtained from the database.</h2>
      * @param id int
@@ -49,11 +51,11 @@ public class Drink extends Product {
      * @see CommodityUnit
      */
     @Override
-    public BigDecimal getDiscount() {
-        LocalTime now = now();
-        return now.isAfter(of(19, 30)) && now.isBefore(of(21, 30))
+    public Money getDiscount() {
+        long now = DayClock.millisOfDay();
+        return now > HAPPY_HOURS_START && now < HAPPY_HOURS_END
                 ? super.getDiscount()
-                : ZERO;
+                : Money.ZERO;
     }
 
     /**
@@ -62,7 +64,7 @@ public class Drink extends Product {
      */
     @Override
     public Drink applyName(final String name) {
-        return new Drink(this.getId(), name, this.getPrice(), this.getRating(), this.getDiscount());
+        return new Drink(this.getId(), name, this.getPrice(), this.getRating(), valueOf(this.getPercentageDiscount()));
     }
 
     /**
@@ -71,7 +73,7 @@ public class Drink extends Product {
      */
     @Override
     public Drink applyPrice(final BigDecimal price) {
-        return new Drink(this.getId(), this.getName(), price, this.getRating(), this.getDiscount());
+        return new Drink(this.getId(), this.getName(), price, this.getRating(), valueOf(this.getPercentageDiscount()));
     }
 
     /**
@@ -80,7 +82,7 @@ public class Drink extends Product {
      */
     @Override
     public Drink applyRating(final Rating rating) {
-        return new Drink(this.getId(), this.getName(), this.getPrice(), rating, this.getDiscount());
+        return new Drink(this.getId(), this.getName(), this.getPrice(), rating, valueOf(this.getPercentageDiscount()));
     }
 
     /**
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <h2>Day buckets of the Food products whose discount or expiry changes</h2>
+ * <p>FileName: ExpirySchedule.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 20:13</p>
+ * <p>A Food instance fixes its last day markdown and its expiry when it is made, so it only goes out of date on
+ * two days: its last day and the day after. Every Food is kept by id in the bucket of its next such day, a
+ * TreeMap from epoch day to ids. A daemon thread wakes up at every local midnight, on days of 23 or 25 hours
+ * too, and hands the new day to CommodityManager, which takes the due buckets and replaces their products in one
+ * batch. Ids are not removed when a product changes, a stale id only makes the batch replace a product with an
+ * equal copy.</p>
+ *
+ * @author agent
+ */
+
+class ExpirySchedule implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ExpirySchedule.class.getName());
+
+    private final NavigableMap<Long, Set<Integer>> buckets = new TreeMap<>();
+    private final LongConsumer dayStart;
+    private final ScheduledExecutorService timer;
+
+    /**
+     * @param dayStart LongConsumer - receives the epoch day at every local midnight, runs on the schedule thread
+     */
+    ExpirySchedule(final LongConsumer dayStart) {
+        this.dayStart = dayStart;
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "expiry-schedule");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the current day at once, then every following midnight
+     */
+    void start() {
+        timer.execute(this::run);
+    }
+
+    /**
+     * Puts a Food into the bucket of the day its instance goes out of date, other products are ignored
+     */
+    synchronized void add(final Product product) {
+        if (!(product instanceof Food)) return;
+        long day = ((Food) product).getNextChange();
+        if (day != Long.MAX_VALUE) buckets.computeIfAbsent(day, key -> new HashSet<>()).add(product.getId());
+    }
+
+    /**
+     * Recomputes the buckets from the whole catalog
+     */
+    synchronized void rebuild(final Collection<Product> catalog) {
+        buckets.clear();
+        catalog.forEach(this::add);
+    }
+
+    /**
+     * Takes the buckets of the day and of all days before it
+     *
+     * @param day long - epoch day
+     * @return List - ids of the products to replace
+     */
+    synchronized List<Integer> due(final long day) {
+        List<Integer> ids = new ArrayList<>();
+        Map<Long, Set<Integer>> due = buckets.headMap(day, true);
+        due.values().forEach(ids::addAll);
+        due.clear();
+        return ids;
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    private void run() {
+        try {
+            dayStart.accept(DayClock.epochDay());
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Error starting the day " + e.getMessage(), e);
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        Duration untilMidnight = Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay(zone));
+        timer.schedule(this::run, untilMidnight.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,12 +1,8 @@
 package labs.pm.data;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.util.Properties;
 import static java.math.BigDecimal.valueOf;
-import static java.time.LocalDate.*;
-import static java.math.RoundingMode.HALF_UP;
 
 
 /**
@@ -19,7 +15,25 @@ import static java.math.RoundingMode.HALF_UP;
  */
 
 public class Food extends Product {
+    /**
+     * Share of the price taken off on the last day of the shelf life, in %
+     */
+    private static final int LAST_DAY_PERCENTAGE = 50;
+
+    /**
+     * Discount of the day the instance was made, half the price on the last day of the shelf life
+     */
+    private final Money discount;
+
+    /**
+     * True if the instance was made after the last day of the shelf life
+     */
+    private final boolean expired;
 
+    /**
+     * Epoch day from which the discount or the expiry of this instance is out of date
+     */
+    private final long nextChange;
 
     /**
      * <h2>This constructor is used to create an object of an existing product obtained from the database.</h2>
@@ -32,6 +46,11 @@ public class Food extends Product {
      */
     Food(final int id, final String name, final BigDecimal price, final Rating rating, final BigDecimal DISCOUNT_RATE, final LocalDate bestBefore) {
         super(id, name, price, rating, DISCOUNT_RATE, bestBefore);
+        long today = DayClock.epochDay();
+        long lastDay = bestBefore.toEpochDay();
+        this.discount = today == lastDay ? Money.percentOf(price, LAST_DAY_PERCENTAGE) : super.getDiscount();
+        this.expired = today > lastDay;
+        this.nextChange = today < lastDay ? lastDay : today == lastDay ? lastDay + 1 : Long.MAX_VALUE;
     }
 
     /**
@@ -43,6 +62,11 @@ public class Food extends Product {
      */
     Food(final String name, final BigDecimal price, final Rating rating, final LocalDate bestBefore) {
         super(name, price, rating, bestBefore);
+        long today = DayClock.epochDay();
+        long lastDay = bestBefore.toEpochDay();
+        this.discount = today == lastDay ? Money.percentOf(price, LAST_DAY_PERCENTAGE) : super.getDiscount();
+        this.expired = today > lastDay;
+        this.nextChange = today < lastDay ? lastDay : today == lastDay ? lastDay + 1 : Long.MAX_VALUE;
     }
 
     /**
@@ -50,8 +74,30 @@ public class Food extends Product {
      * @see CommodityUnit
      */
     @Override
-    public BigDecimal getDiscount() {
-        return getBestBefore().isEqual(now()) ? getPrice().multiply(valueOf(0.50)).setScale(2, HALF_UP) : super.getDiscount();
+    public Money getDiscount() {
+        return discount;
+    }
+
+    /**
+     * @return boolean - true if the shelf life had ended when the instance was made
+     */
+    @Override
+    public boolean isExpired() {
+        return expired;
+    }
+
+    /**
+     * @return long - epoch day the expiry schedule has to replace the instance on, Long.MAX_VALUE once expired
+     */
+    long getNextChange() {
+        return nextChange;
+    }
+
+    /**
+     * @return Food - copy with the discount and the expiry of today
+     */
+    Food refresh() {
+        return new Food(this.getId(), this.getName(), this.getPrice(), this.getRating(), valueOf(this.getPercentageDiscount()), this.getBestBefore());
     }
 
     /**
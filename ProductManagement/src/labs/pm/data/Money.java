@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * <h2>Immutable amount of money in cents</h2>
+ * <p>FileName: Money.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 19:58</p>
+ * <p>A long with a fixed scale of two decimals, so comparing, summing and printing an amount needs no BigDecimal.
+ * Amounts enter through of(BigDecimal), which rounds to whole cents HALF_UP exactly as the discounts were rounded
+ * before, and throws ArithmeticException if the amount does not fit into a long.</p>
+ *
+ * @author agent
+ */
+
+public final class Money implements Comparable<Money>, Serializable {
+    private static final long serialVersionUID = 1L;
+    /**
+     * Decimal places of every amount
+     */
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(final long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(final long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * @param amount BigDecimal - any scale
+     * @return Money - amount rounded to cents HALF_UP
+     */
+    public static Money of(final BigDecimal amount) {
+        return ofCents(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * @param amount BigDecimal - any scale
+     * @param percent int - share of the amount in %
+     * @return Money - percent of the amount rounded to cents HALF_UP, computed from the exact amount
+     */
+    public static Money percentOf(final BigDecimal amount, final int percent) {
+        return of(amount.multiply(BigDecimal.valueOf(percent, 2)));
+    }
+
+    public long cents() {
+        return cents;
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(final Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return this == o || o instanceof Money && cents == ((Money) o).cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    /**
+     * @return String - plain amount with two decimals, e.g. 12.50
+     */
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -63,7 +63,7 @@ public class NonFood extends Product {
      */
     @Override
     public NonFood applyName(final String name) {
-        return new NonFood(this.getId(), name, this.getPrice(), this.getRating(), this.getDiscount());
+        return new NonFood(this.getId(), name, this.getPrice(), this.getRating(), valueOf(this.getPercentageDiscount()));
     }
 
     /**
@@ -72,7 +72,7 @@ public class NonFood extends Product {
      */
     @Override
     public NonFood applyPrice(final BigDecimal price) {
-        return new NonFood(this.getId(), this.getName(), price, this.getRating(), this.getDiscount());
+        return new NonFood(this.getId(), this.getName(), price, this.getRating(), valueOf(this.getPercentageDiscount()));
     }
 
     /**
@@ -81,7 +81,7 @@ public class NonFood extends Product {
      */
     @Override
     public NonFood applyRating(Rating rating) {
-        return new NonFood(this.getId(), this.getName(), this.getPrice(), rating, this.getDiscount());
+        return new NonFood(this.getId(), this.getName(), this.getPrice(), rating, valueOf(this.getPercentageDiscount()));
     }
 
     /**
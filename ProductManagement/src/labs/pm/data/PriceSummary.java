@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+/**
+ * <h2>Count and prices of the products matching a ProductFilter</h2>
+ * <p>FileName: PriceSummary.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 20:03</p>
+ * <p>Aggregated in whole cents. Minimum, maximum and average are Money.ZERO when nothing matched.</p>
+ *
+ * @author agent
+ */
+
+public final class PriceSummary {
+    private final long count;
+    private final Money total;
+    private final Money min;
+    private final Money max;
+
+    PriceSummary(final long count, final long total, final long min, final long max) {
+        this.count = count;
+        this.total = Money.ofCents(total);
+        this.min = Money.ofCents(count == 0 ? 0 : min);
+        this.max = Money.ofCents(count == 0 ? 0 : max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Money getTotal() {
+        return total;
+    }
+
+    public Money getMin() {
+        return min;
+    }
+
+    public Money getMax() {
+        return max;
+    }
+
+    /**
+     * @return Money - total / count rounded HALF_UP to cents
+     */
+    public Money getAverage() {
+        if (count == 0) return Money.ZERO;
+        long cents = total.cents();
+        long average = cents / count;
+        long rest = Math.abs(cents % count);
+        if (rest * 2 >= count) average += Long.signum(cents);
+        return Money.ofCents(average);
+    }
+}
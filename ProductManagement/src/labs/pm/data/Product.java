@@ -1,11 +1,12 @@
 package labs.pm.data;
 
+import labs.pm.utils.json.JsonWriter;
+
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Comparator;
 
-import static java.math.RoundingMode.HALF_UP;
 import static java.math.BigDecimal.valueOf;
 import static labs.pm.data.Rating.*;
 
@@ -41,6 +42,11 @@ abstract public class Product implements CommodityUnit, Rateable<Product>, Seria
      */
     private final BigDecimal price;
 
+    /**
+     * Price in whole cents for the indexes and filters
+     */
+    private final long priceCents;
+
     /**
      * The current customer rating of the product.
      * A new product or a product that has not yet been voted on by a customer has no rating
@@ -53,9 +59,9 @@ abstract public class Product implements CommodityUnit, Rateable<Product>, Seria
     private final int percentageDiscount;
 
     /**
-     * Discount amount for the current product
+     * Discount amount for the current product, computed once from the price and the percentage
      */
-    private final BigDecimal DISCOUNT_RATE;
+    private final Money discount;
 
     /**
      * Product shelf life
@@ -123,9 +129,10 @@ abstract public class Product implements CommodityUnit, Rateable<Product>, Seria
         this.id = id;
         this.name = name;
         this.price = price;
+        this.priceCents = Money.of(price).cents();
         this.rating = rating;
         this.percentageDiscount = DISCOUNT_RATE.intValue();
-        this.DISCOUNT_RATE = valueOf(percentageDiscount / (double) 100);
+        this.discount = Money.percentOf(price, percentageDiscount);
         this.bestBefore = bestBefore;
     }
 
@@ -157,12 +164,19 @@ abstract public class Product implements CommodityUnit, Rateable<Product>, Seria
         return price;
     }
 
+    /**
+     * @return long - price rounded HALF_UP to whole cents
+     */
+    long getPriceCents() {
+        return priceCents;
+    }
+
     /**
      * @see CommodityUnit
      */
     @Override
-    public BigDecimal getDiscount() {
-        return price.multiply(DISCOUNT_RATE).setScale(2, HALF_UP);
+    public Money getDiscount() {
+        return discount;
     }
 
     /**
@@ -191,6 +205,14 @@ abstract public class Product implements CommodityUnit, Rateable<Product>, Seria
         return this.bestBefore;
     }
 
+    /**
+     * <h2>Retired from the listings</h2>
+     * @return boolean - true for a product past its shelf life, only Food has one the catalog enforces
+     */
+    public boolean isExpired() {
+        return false;
+    }
+
 
     /**
      * Overridden methods and custom modification methods of the toString () method
@@ -240,7 +262,7 @@ abstract public class Product implements CommodityUnit, Rateable<Product>, Seria
         result = 31 * result + price.hashCode();
         result = 31 * result + rating.hashCode();
         result = 31 * result + percentageDiscount;
-        result = 31 * result + DISCOUNT_RATE.hashCode();
+        result = 31 * result + discount.hashCode();
         return result;
     }
 
@@ -249,15 +271,37 @@ abstract public class Product implements CommodityUnit, Rateable<Product>, Seria
      */
     @Override
     public String toStringJSON() {
-        return new StringBuffer()
-                .append("{")
-                .append("id: " + getId())
-                .append(", title: \"" + getName() + "\"")
-                .append(", price: " + getPrice())
-                .append(", basic_discount: " + getDiscount())
-                .append(", current_consumer_rating: " + getRating().ordinal())
-                .append("}")
-                .toString();
+        JsonWriter json = new JsonWriter(256);
+        writeJSON(json);
+        return json.toString();
+    }
+
+    /**
+     * <h2>Writes the product as a JSON object</h2>
+     *
+     * @param json JsonWriter - output positioned where a value is expected
+     */
+    public void writeJSON(final JsonWriter json) {
+        json.beginObject();
+        writeJSONMembers(json);
+        json.endObject();
+    }
+
+    /**
+     * <h2>Writes the product members into an object the caller has begun</h2>
+     * <p>Lets the caller add members of its own, e.g. the reviews of the product</p>
+     *
+     * @param json JsonWriter - output inside an object
+     */
+    public void writeJSONMembers(final JsonWriter json) {
+        json.name("id").value(getId())
+                .name("type").value(ProductType.of(this).name())
+                .name("title").value(getName())
+                .name("price").value(getPrice())
+                .name("basic_discount").value(getDiscount().cents(), Money.SCALE)
+                .name("percentage_discount").value(getPercentageDiscount())
+                .name("current_consumer_rating").value(getRating().ordinal())
+                .name("best_before").value(getBestBefore().toString());
     }
 
 }
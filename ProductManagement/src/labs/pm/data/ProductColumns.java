@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import labs.pm.utils.collections.IntIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <h2>Struct-of-arrays copy of the catalog for catalog-wide scans</h2>
+ * <p>FileName: ProductColumns.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 20:03</p>
+ * <p>One row per product: id, type, price in cents, rating, discount in % and best before as epoch day, each in a
+ * primitive array of its own, plus the Product itself, which is only read for the rows a query returns. A
+ * ProductFilter is evaluated one column at a time: the type kernel scans the whole type column into a selection
+ * vector of rows, every other restricted column only narrows that vector. The loops read one small array
+ * sequentially and keep a row without a branch, so they run at memory speed whatever the selectivity.</p>
+ * <p>Kept in sync by CommodityManager like the productIndex: rows are added only under the catalog write lock,
+ * a row is rewritten under its product stripe write lock, rows are removed only under the catalog write lock,
+ * and scans hold all stripes for reading.</p>
+ *
+ * @author agent
+ */
+
+class ProductColumns {
+    private static final int DEFAULT_CAPACITY = 1024;
+    /**
+     * Type of the row of an expired product, outside of every type mask
+     */
+    private static final int RETIRED = ProductType.values().length;
+    private static final int NO_ROW = -1;
+
+    /**
+     * Row of every product id, without boxing
+     */
+    private final IntIntHashMap rows = new IntIntHashMap(NO_ROW);
+    private int size;
+    private int[] ids;
+    private byte[] types;
+    private long[] prices;
+    private byte[] ratings;
+    private int[] percentages;
+    private int[] bestBefore;
+    private Product[] products;
+
+    ProductColumns() {
+        reset(DEFAULT_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Recomputes the columns from the whole catalog, the catalog must not change meanwhile
+     */
+    void rebuild(final Collection<Product> catalog) {
+        rows.clear();
+        reset(Math.max(DEFAULT_CAPACITY, catalog.size()));
+        catalog.forEach(this::add);
+    }
+
+    /**
+     * Adds a row for a new product, or rewrites the row of a product that has one. Needs the catalog write lock
+     */
+    void add(final Product product) {
+        int row = rows.get(product.getId());
+        if (row == NO_ROW) {
+            if (size == ids.length) grow(size + (size >> 1));
+            row = size++;
+            rows.put(product.getId(), row);
+        }
+        write(row, product);
+    }
+
+    /**
+     * Rewrites the row of a product with its new instance, a product without a row (e.g. retired) stays without
+     * one. Never changes the structure, so the product stripe write lock is enough
+     */
+    void update(final Product product) {
+        int row = rows.get(product.getId());
+        if (row != NO_ROW) write(row, product);
+    }
+
+    private void write(final int row, final Product product) {
+        ids[row] = product.getId();
+        types[row] = (byte) (product.isExpired() ? RETIRED : ProductType.of(product).ordinal());
+        prices[row] = product.getPriceCents();
+        ratings[row] = (byte) product.getRating().ordinal();
+        percentages[row] = product.getPercentageDiscount();
+        bestBefore[row] = (int) product.getBestBefore().toEpochDay();
+        products[row] = product;
+    }
+
+    /**
+     * Drops the row of a product, the last row takes its place. An expired product keeps a row no type selects
+     * until it is removed
+     */
+    void remove(final int id) {
+        int row = rows.remove(id);
+        if (row == NO_ROW) return;
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            types[row] = types[last];
+            prices[row] = prices[last];
+            ratings[row] = ratings[last];
+            percentages[row] = percentages[last];
+            bestBefore[row] = bestBefore[last];
+            products[row] = products[last];
+            rows.put(ids[row], row);
+        }
+        products[last] = null;
+    }
+
+    /**
+     * @param filter    ProductFilter - criteria
+     * @param selection int[] - at least size() elements, receives the rows matching the filter in row order
+     * @return int - number of matching rows
+     */
+    int select(final ProductFilter filter, final int[] selection) {
+        int count = selectTypes(filter.types(), selection);
+        if (filter.restrictsRating()) count = keepRatings(filter.minRating(), filter.maxRating(), selection, count);
+        if (filter.minPercentage() > 0) count = keepPercentages(filter.minPercentage(), selection, count);
+        if (filter.restrictsPrice()) count = keepPrices(filter.minPrice(), filter.maxPrice(), selection, count);
+        if (filter.restrictsBestBefore()) count = keepDays(filter.firstDay(), filter.lastDay(), selection, count);
+        return count;
+    }
+
+    /**
+     * @return List - products of the first count rows of the selection vector
+     */
+    List<Product> materialize(final int[] selection, final int count) {
+        List<Product> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) result.add(products[selection[i]]);
+        return result;
+    }
+
+    /**
+     * Aggregate kernel over the price column of the selected rows
+     */
+    PriceSummary summarize(final int[] selection, final int count) {
+        long total = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            long price = prices[selection[i]];
+            total += price;
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+        }
+        return new PriceSummary(count, total, min, max);
+    }
+
+    private int selectTypes(final int mask, final int[] selection) {
+        byte[] types = this.types;
+        int kept = 0;
+        for (int row = 0; row < size; row++) {
+            selection[kept] = row;
+            kept += mask >>> types[row] & 1;
+        }
+        return kept;
+    }
+
+    private int keepRatings(final int min, final int max, final int[] selection, final int count) {
+        byte[] ratings = this.ratings;
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            int rating = ratings[row];
+            selection[kept] = row;
+            kept += rating >= min & rating <= max ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private int keepPercentages(final int min, final int[] selection, final int count) {
+        int[] percentages = this.percentages;
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            selection[kept] = row;
+            kept += percentages[row] >= min ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private int keepPrices(final long min, final long max, final int[] selection, final int count) {
+        long[] prices = this.prices;
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            long price = prices[row];
+            selection[kept] = row;
+            kept += price >= min & price <= max ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private int keepDays(final long first, final long last, final int[] selection, final int count) {
+        int[] bestBefore = this.bestBefore;
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            int day = bestBefore[row];
+            selection[kept] = row;
+            kept += day >= first & day <= last ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private void reset(final int capacity) {
+        size = 0;
+        ids = new int[capacity];
+        types = new byte[capacity];
+        prices = new long[capacity];
+        ratings = new byte[capacity];
+        percentages = new int[capacity];
+        bestBefore = new int[capacity];
+        products = new Product[capacity];
+    }
+
+    private void grow(final int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        types = Arrays.copyOf(types, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+        percentages = Arrays.copyOf(percentages, capacity);
+        bestBefore = Arrays.copyOf(bestBefore, capacity);
+        products = Arrays.copyOf(products, capacity);
+    }
+}
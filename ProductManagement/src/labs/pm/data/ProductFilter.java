@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.time.LocalDate;
+import java.util.function.Predicate;
+
+/**
+ * <h2>Catalog criteria the columnar store can evaluate without touching the products</h2>
+ * <p>FileName: ProductFilter.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 20:03</p>
+ * <p>Immutable, every restriction returns a new filter. Types, rating, discount, price and best before date are
+ * kept as primitive bounds, so ProductColumns runs them as kernels over its arrays. Still a Predicate, any code that
+ * lists products with a Predicate accepts it and CommodityManager recognizes it. Prices are compared in whole
+ * cents, rounded HALF_UP like Money.</p>
+ *
+ * @author agent
+ */
+
+public final class ProductFilter implements Predicate<Product> {
+    private static final int ALL_TYPES = (1 << ProductType.values().length) - 1;
+    private static final ProductFilter ALL = new ProductFilter(ALL_TYPES, 0, Rating.values().length - 1, 0,
+            Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    /**
+     * Bit per ProductType ordinal
+     */
+    private final int types;
+    private final int minRating;
+    private final int maxRating;
+    private final int minPercentage;
+    private final long minPrice;
+    private final long maxPrice;
+    private final long firstDay;
+    private final long lastDay;
+
+    private ProductFilter(final int types, final int minRating, final int maxRating, final int minPercentage,
+                          final long minPrice, final long maxPrice, final long firstDay, final long lastDay) {
+        this.types = types;
+        this.minRating = minRating;
+        this.maxRating = maxRating;
+        this.minPercentage = minPercentage;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+    }
+
+    /**
+     * @return ProductFilter - matches every product
+     */
+    public static ProductFilter all() {
+        return ALL;
+    }
+
+    /**
+     * @param type ProductType - the only type to keep
+     */
+    public ProductFilter type(final ProductType type) {
+        return new ProductFilter(types & 1 << type.ordinal(), minRating, maxRating, minPercentage, minPrice, maxPrice,
+                firstDay, lastDay);
+    }
+
+    /**
+     * @param stars int - lowest rating to keep, 0 (NOT_RATED) .. 5
+     */
+    public ProductFilter ratingAtLeast(final int stars) {
+        return new ProductFilter(types, Math.max(minRating, stars), maxRating, minPercentage, minPrice, maxPrice,
+                firstDay, lastDay);
+    }
+
+    /**
+     * @param stars int - highest rating to keep, 0 (NOT_RATED) .. 5
+     */
+    public ProductFilter ratingAtMost(final int stars) {
+        return new ProductFilter(types, minRating, Math.min(maxRating, stars), minPercentage, minPrice, maxPrice,
+                firstDay, lastDay);
+    }
+
+    /**
+     * @param percent int - lowest discount rate to keep, in %
+     */
+    public ProductFilter discountAtLeast(final int percent) {
+        return new ProductFilter(types, minRating, maxRating, Math.max(minPercentage, percent), minPrice, maxPrice,
+                firstDay, lastDay);
+    }
+
+    /**
+     * @param min Money - lowest price to keep, inclusive, null for no bound
+     * @param max Money - highest price to keep, inclusive, null for no bound
+     */
+    public ProductFilter priceBetween(final Money min, final Money max) {
+        return new ProductFilter(types, minRating, maxRating, minPercentage,
+                min == null ? minPrice : Math.max(minPrice, min.cents()),
+                max == null ? maxPrice : Math.min(maxPrice, max.cents()), firstDay, lastDay);
+    }
+
+    /**
+     * @param first LocalDate - earliest best before date to keep, inclusive, null for no bound
+     * @param last LocalDate - latest best before date to keep, inclusive, null for no bound
+     */
+    public ProductFilter bestBeforeBetween(final LocalDate first, final LocalDate last) {
+        return new ProductFilter(types, minRating, maxRating, minPercentage, minPrice, maxPrice,
+                first == null ? firstDay : Math.max(firstDay, first.toEpochDay()),
+                last == null ? lastDay : Math.min(lastDay, last.toEpochDay()));
+    }
+
+    /**
+     * Object path of the same criteria, used when the catalog has no columns
+     */
+    @Override
+    public boolean test(final Product product) {
+        int rating = product.getRating().ordinal();
+        long price = product.getPriceCents();
+        long day = product.getBestBefore().toEpochDay();
+        return (types >>> ProductType.of(product).ordinal() & 1) != 0
+                && rating >= minRating && rating <= maxRating
+                && product.getPercentageDiscount() >= minPercentage
+                && price >= minPrice && price <= maxPrice
+                && day >= firstDay && day <= lastDay;
+    }
+
+    /**
+     * @return long - lowest value of the key this filter lets through
+     */
+    long lowerBound(final ProductOrder.Key key) {
+        return switch (key) {
+            case PRICE -> minPrice;
+            case RATING -> minRating;
+            case BEST_BEFORE -> firstDay;
+            case TYPE -> types == 0 ? 1 : Integer.numberOfTrailingZeros(types);
+        };
+    }
+
+    /**
+     * @return long - highest value of the key this filter lets through, below lowerBound() if none passes
+     */
+    long upperBound(final ProductOrder.Key key) {
+        return switch (key) {
+            case PRICE -> maxPrice;
+            case RATING -> maxRating;
+            case BEST_BEFORE -> lastDay;
+            case TYPE -> types == 0 ? 0 : 31 - Integer.numberOfLeadingZeros(types);
+        };
+    }
+
+    int types() {
+        return types;
+    }
+
+    boolean restrictsRating() {
+        return minRating > ALL.minRating || maxRating < ALL.maxRating;
+    }
+
+    int minRating() {
+        return minRating;
+    }
+
+    int maxRating() {
+        return maxRating;
+    }
+
+    int minPercentage() {
+        return minPercentage;
+    }
+
+    boolean restrictsPrice() {
+        return minPrice != Long.MIN_VALUE || maxPrice != Long.MAX_VALUE;
+    }
+
+    long minPrice() {
+        return minPrice;
+    }
+
+    long maxPrice() {
+        return maxPrice;
+    }
+
+    boolean restrictsBestBefore() {
+        return firstDay != Long.MIN_VALUE || lastDay != Long.MAX_VALUE;
+    }
+
+    long firstDay() {
+        return firstDay;
+    }
+
+    long lastDay() {
+        return lastDay;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * <h2>Secondary indexes on price, rating, best before date and type</h2>
+ * <p>FileName: ProductIndexes.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 20:07</p>
+ * <p>One SortedIndex per ProductOrder.Key. CommodityManager keeps them in sync like the productIndex: a new
+ * product is added under the catalog write lock, a re-priced or re-rated one is moved under its product stripe
+ * write lock, and only the indexes whose value changed are touched.</p>
+ *
+ * @author agent
+ */
+
+class ProductIndexes {
+    private final Map<ProductOrder.Key, SortedIndex> indexes = new EnumMap<>(ProductOrder.Key.class);
+
+    ProductIndexes() {
+        for (ProductOrder.Key key : ProductOrder.Key.values()) indexes.put(key, new SortedIndex());
+    }
+
+    SortedIndex get(final ProductOrder.Key key) {
+        return indexes.get(key);
+    }
+
+    void add(final Product product) {
+        indexes.forEach((key, index) -> index.add(key.of(product), product.getId()));
+    }
+
+    void remove(final Product product) {
+        indexes.forEach((key, index) -> index.remove(key.of(product), product.getId()));
+    }
+
+    /**
+     * @param product    Product - instance being replaced
+     * @param newProduct Product - new instance with the same id
+     */
+    void replace(final Product product, final Product newProduct) {
+        indexes.forEach((key, index) -> {
+            long value = key.of(product);
+            long newValue = key.of(newProduct);
+            if (value == newValue) return;
+            index.remove(value, product.getId());
+            index.add(newValue, newProduct.getId());
+        });
+    }
+
+    /**
+     * Recomputes the indexes from the whole catalog, the catalog must not change meanwhile
+     */
+    void rebuild(final Collection<Product> catalog) {
+        indexes.values().forEach(SortedIndex::clear);
+        catalog.forEach(this::add);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.util.Comparator;
+
+/**
+ * <h2>Order of a listing by an indexed value</h2>
+ * <p>FileName: ProductOrder.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 20:07</p>
+ * <p>A Comparator that CommodityManager recognizes: instead of sorting the matching products it walks the
+ * ProductIndexes entry of the key, only over the range the ProductFilter allows. Equal values are ordered by id
+ * ascending in both directions, exactly like the index walk returns them, so the order is total.</p>
+ *
+ * @author agent
+ */
+
+public final class ProductOrder implements Comparator<Product> {
+
+    /**
+     * Indexed values, each reduced to a long
+     */
+    public enum Key {
+        PRICE,
+        RATING,
+        BEST_BEFORE,
+        TYPE;
+
+        /**
+         * @return long - price in cents, rating or type ordinal, best before epoch day
+         */
+        long of(final Product product) {
+            return switch (this) {
+                case PRICE -> product.getPriceCents();
+                case RATING -> product.getRating().ordinal();
+                case BEST_BEFORE -> product.getBestBefore().toEpochDay();
+                case TYPE -> ProductType.of(product).ordinal();
+            };
+        }
+    }
+
+    private final Key key;
+    private final boolean descending;
+
+    private ProductOrder(final Key key, final boolean descending) {
+        this.key = key;
+        this.descending = descending;
+    }
+
+    /**
+     * @param key Key - indexed value
+     * @return ProductOrder - ascending order by the value
+     */
+    public static ProductOrder by(final Key key) {
+        return new ProductOrder(key, false);
+    }
+
+    /**
+     * @return ProductOrder - the opposite direction, still recognized by CommodityManager
+     */
+    @Override
+    public ProductOrder reversed() {
+        return new ProductOrder(key, !descending);
+    }
+
+    public Key getKey() {
+        return key;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    @Override
+    public int compare(final Product first, final Product second) {
+        int byValue = Long.compare(key.of(first), key.of(second));
+        if (byValue != 0) return descending ? -byValue : byValue;
+        return Integer.compare(first.getId(), second.getId());
+    }
+}
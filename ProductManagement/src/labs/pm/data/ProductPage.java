@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <h2>One page of a ProductQuery</h2>
+ * <p>FileName: ProductPage.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 20:09</p>
+ * <p>Products of the page in the order of the query and the number of all products the filter matched.</p>
+ *
+ * @author agent
+ */
+
+public final class ProductPage {
+    private final List<Product> products;
+    private final int offset;
+    private final int total;
+
+    ProductPage(final List<Product> products, final int offset, final int total) {
+        this.products = Collections.unmodifiableList(products);
+        this.offset = offset;
+        this.total = total;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return boolean - true if more products match after this page
+     */
+    public boolean hasNext() {
+        return offset + products.size() < total;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.util.Comparator;
+import java.util.function.Predicate;
+
+/**
+ * <h2>Declarative listing of the catalog: filter, order and page</h2>
+ * <p>FileName: ProductQuery.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 20:09</p>
+ * <p>Immutable, every setting returns a new query. CommodityManager plans it from what it recognizes: a
+ * ProductFilter is evaluated on the columns, a ProductOrder walks its index, any other order keeps the first
+ * offset + limit matches in a bounded heap instead of sorting all of them. Ties of any order are broken by id, so
+ * consecutive pages neither repeat nor skip products while the catalog does not change.</p>
+ *
+ * @author agent
+ */
+
+public final class ProductQuery {
+    private static final Comparator<Product> BY_ID = Comparator.comparingInt(Product::getId);
+
+    private final Predicate<Product> filter;
+    private final Comparator<Product> order;
+    private final int offset;
+    private final int limit;
+
+    private ProductQuery(final Predicate<Product> filter, final Comparator<Product> order, final int offset,
+                         final int limit) {
+        this.filter = filter;
+        this.order = order;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * @param filter Predicate - products to list, a ProductFilter to run on the columns
+     * @return ProductQuery - all matching products ordered by id
+     */
+    public static ProductQuery where(final Predicate<Product> filter) {
+        return new ProductQuery(filter, BY_ID, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param order Comparator - order of the listing, a ProductOrder to walk an index
+     */
+    public ProductQuery orderBy(final Comparator<Product> order) {
+        Comparator<Product> total = order instanceof ProductOrder ? order : order.thenComparing(BY_ID);
+        return new ProductQuery(filter, total, offset, limit);
+    }
+
+    /**
+     * @param offset int - matching products to skip
+     * @param limit  int - most products to return
+     */
+    public ProductQuery page(final int offset, final int limit) {
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("Offset and limit must not be negative");
+        return new ProductQuery(filter, order, offset, limit);
+    }
+
+    /**
+     * @return ProductQuery - the page after this one
+     */
+    public ProductQuery next() {
+        return page(end(), limit);
+    }
+
+    public Predicate<Product> getFilter() {
+        return filter;
+    }
+
+    public Comparator<Product> getOrder() {
+        return order;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return int - offset + limit, at most Integer.MAX_VALUE
+     */
+    int end() {
+        return (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * <h2>Reviews of one product with running rating aggregates</h2>
+ * <p>FileName: ProductReviews.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 18:51</p>
+ * <p>Reviews are kept in one bucket per Rating, so adding a review and recalculating the product rating
+ * are O(1) and the reviews are always available from the best to the worst without sorting.
+ * Inside a bucket the reviews keep their arrival order. NOT thread safe.</p>
+ * <p>A header-only instance keeps just the aggregates plus the reviews added since the catalog was loaded,
+ * the rest of the review bodies stay in the source (catalog snapshot or CSV) and are loaded on demand.</p>
+ * @author agent
+ */
+
+class ProductReviews {
+    private static final Rating[] RATINGS = Rating.values();
+    /**
+     * Source of a header-only instance when the review bodies are in the reviews CSV file
+     */
+    static final long CSV_SOURCE = -1;
+
+    /**
+     * Per Rating histogram of the reviews
+     */
+    private final int[] counts = new int[RATINGS.length];
+    private final List<Review>[] buckets;
+    private int total;
+    private long sum;
+    /**
+     * Header-only state: position of the review bodies in the source and reviews added after loading
+     */
+    private final long source;
+    private List<Review> pending;
+
+    /**
+     * Resident instance, all review bodies are kept in memory
+     */
+    @SuppressWarnings("unchecked")
+    ProductReviews() {
+        this.buckets = (List<Review>[]) new List<?>[RATINGS.length];
+        this.source = CSV_SOURCE;
+    }
+
+    private ProductReviews(final long source) {
+        this.buckets = null;
+        this.source = source;
+    }
+
+    /**
+     * @param source long - offset of the review bodies in the catalog snapshot or CSV_SOURCE
+     * @return header-only instance, review bodies are counted with tally()
+     */
+    static ProductReviews header(final long source) {
+        return new ProductReviews(source);
+    }
+
+    /**
+     * <p>Adds a review and updates the aggregates</p>
+     * @param review Review - new consumer review
+     */
+    void add(final Review review) {
+        int stars = review.getRating().ordinal();
+        if (buckets != null) {
+            if (buckets[stars] == null) buckets[stars] = new ArrayList<>();
+            buckets[stars].add(review);
+        } else {
+            if (pending == null) pending = new ArrayList<>(2);
+            pending.add(review);
+        }
+        counts[stars]++;
+        total++;
+        sum += stars;
+    }
+
+    /**
+     * <p>Counts a review whose body stays in the source of a header-only instance</p>
+     * @param rating Rating - rating of the review
+     */
+    void tally(final Rating rating) {
+        int stars = rating.ordinal();
+        counts[stars]++;
+        total++;
+        sum += stars;
+    }
+
+    boolean isResident() {
+        return buckets != null;
+    }
+
+    long getSource() {
+        return source;
+    }
+
+    /**
+     * @return List of the reviews added to a header-only instance after loading, in arrival order
+     */
+    List<Review> getPending() {
+        return pending == null ? List.of() : pending;
+    }
+
+    /**
+     * <p>Rounded average of all review ratings, NOT_RATED while there are no reviews</p>
+     * @return Rating
+     */
+    Rating getRating() {
+        return total == 0 ? Rating.NOT_RATED : Rateable.convert((int) Math.round((double) sum / total));
+    }
+
+    /**
+     * @param rating Rating
+     * @return int - number of reviews with the given rating
+     */
+    int count(final Rating rating) {
+        return counts[rating.ordinal()];
+    }
+
+    int size() {
+        return total;
+    }
+
+    boolean isEmpty() {
+        return total == 0;
+    }
+
+    /**
+     * @return Stream of the reviews ordered from the best rating to the worst
+     * @throws IllegalStateException for a header-only instance
+     */
+    Stream<Review> stream() {
+        if (buckets == null) throw new IllegalStateException("Review bodies are not resident");
+        return IntStream.iterate(RATINGS.length - 1, stars -> stars >= 0, stars -> stars - 1)
+                .filter(stars -> buckets[stars] != null)
+                .mapToObj(stars -> buckets[stars])
+                .flatMap(List::stream);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductReviews: {total: " + total + ", histogram: " + Arrays.toString(counts) + "}";
+    }
+}
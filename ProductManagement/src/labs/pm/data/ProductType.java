@@ -32,4 +32,14 @@ public enum ProductType {
     NONFOOD;
 
     ProductType(){}
+
+    /**
+     * @param product Product - any product
+     * @return ProductType - type of the product class
+     */
+    public static ProductType of(final Product product) {
+        if (product instanceof Food) return FOOD;
+        if (product instanceof Drink) return DRINK;
+        return NONFOOD;
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * <h2>Cache of rendered product reports</h2>
+ * <p>FileName: ReportCache.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 18:58</p>
+ * <p>One rendered report per product and language tag, valid for one Version of the product. Concurrent requests
+ * for the same missing report are coalesced: the first one renders it, the others wait for its result.
+ * At most capacity reports are kept, the least recently used one is evicted together with the product instance
+ * its version holds, and a new version replaces the old entry. Rendering happens outside of the cache monitor.</p>
+ * @author agent
+ */
+
+class ReportCache {
+    private final int capacity;
+    private final Map<Key, Entry> reports;
+
+    /**
+     * @param capacity int - max number of reports kept
+     */
+    ReportCache(final int capacity) {
+        this.capacity = capacity;
+        this.reports = new LinkedHashMap<>(Math.min(capacity, 1 << 16), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest) {
+                return size() > ReportCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * <p>Returns the cached report or renders it, at most once per key and version</p>
+     * @param id int - ID[SKU] product
+     * @param languageTag String - language tag of the report
+     * @param version Version - current version of the product
+     * @param renderer Supplier - renders the report text
+     * @return String - report text
+     */
+    String get(final int id, final String languageTag, final Version version, final Supplier<String> renderer) {
+        Key key = new Key(id, languageTag);
+        Entry entry;
+        boolean created = false;
+        synchronized (this) {
+            entry = reports.get(key);
+            if (entry == null || !entry.version.equals(version)) {
+                entry = new Entry(version);
+                reports.put(key, entry);
+                created = true;
+            }
+        }
+        if (created) {
+            try {
+                entry.text.complete(renderer.get());
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    reports.remove(key, entry);
+                }
+                entry.text.completeExceptionally(e);
+            }
+        }
+        return entry.text.join();
+    }
+
+    /**
+     * <h2>Identity of the report content</h2>
+     * <p>The product instance (it is replaced on every rating or price change), its review count
+     * and the day the report is printed on</p>
+     */
+    static class Version {
+        private final Product product;
+        private final int reviews;
+        private final long day;
+
+        Version(final Product product, final int reviews, final long day) {
+            this.product = product;
+            this.reviews = reviews;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Version)) return false;
+            Version other = (Version) o;
+            return product == other.product && reviews == other.reviews && day == other.day;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(product), reviews, day);
+        }
+    }
+
+    private static class Key {
+        private final int id;
+        private final String languageTag;
+
+        private Key(final int id, final String languageTag) {
+            this.id = id;
+            this.languageTag = languageTag;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return id == other.id && languageTag.equals(other.languageTag);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * id + languageTag.hashCode();
+        }
+    }
+
+    private static class Entry {
+        private final Version version;
+        private final CompletableFuture<String> text = new CompletableFuture<>();
+
+        private Entry(final Version version) {
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * <h2>Background writer of report files</h2>
+ * <p>FileName: ReportWriter.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 18:58</p>
+ * <p>Report files are written by one background thread from a bounded queue. When the queue is full the caller
+ * writes the file itself, which slows producers down instead of growing the backlog. After close() the caller
+ * writes it too: unlike CallerRunsPolicy no write is ever discarded, which would also leave its file scheduled for
+ * good. Writes are coalesced per file: only one thread at a time writes a file, and a newer report for it replaces
+ * a pending one, so the last report always lands last. The versions of the last capacity files written are remembered, a file which already
+ * holds the same report version is not written again.</p>
+ * @author agent
+ */
+
+class ReportWriter implements Closeable {
+    private static final Logger logger = Logger.getLogger(ReportWriter.class.getName());
+
+    private final ThreadPoolExecutor executor;
+    private final int capacity;
+    /**
+     * Version of the report each recently written file holds, least recently used first
+     */
+    private final Map<Path, ReportCache.Version> written;
+    /**
+     * Files with a write scheduled or running
+     */
+    private final ConcurrentMap<Path, Slot> slots = new ConcurrentHashMap<>();
+
+    /**
+     * @param queueSize int - max number of reports waiting to be written
+     * @param capacity int - max number of files whose written version is remembered
+     */
+    ReportWriter(final int queueSize, final int capacity) {
+        this.capacity = capacity;
+        this.written = new LinkedHashMap<>(Math.min(capacity, 1 << 16), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Path, ReportCache.Version> eldest) {
+                return size() > ReportWriter.this.capacity;
+            }
+        };
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueSize, 1)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> task.run());
+    }
+
+    /**
+     * <p>Schedules writing of the report file</p>
+     * @param file Path - report file
+     * @param version Version - version of the report text
+     * @param text String - report text
+     */
+    void write(final Path file, final ReportCache.Version version, final String text) {
+        if (isWritten(file, version)) return;
+        Report report = new Report(version, text);
+        while (true) {
+            Slot slot = slots.computeIfAbsent(file, path -> new Slot());
+            synchronized (slot) {
+                if (slot.closed) continue;
+                slot.latest = report;
+                if (slot.scheduled) return;
+                slot.scheduled = true;
+            }
+            executor.execute(() -> drain(file, slot));
+            return;
+        }
+    }
+
+    /**
+     * <p>Writes the latest report of the file until no newer one arrives, then retires the slot</p>
+     */
+    private void drain(final Path file, final Slot slot) {
+        while (true) {
+            Report report;
+            synchronized (slot) {
+                report = slot.latest;
+                slot.latest = null;
+                if (report == null) {
+                    slot.closed = true;
+                    slots.remove(file, slot);
+                    return;
+                }
+            }
+            if (isWritten(file, report.version)) continue;
+            try {
+                Files.writeString(file, report.text, StandardCharsets.UTF_8, CREATE, TRUNCATE_EXISTING, WRITE);
+                synchronized (written) {
+                    written.put(file, report.version);
+                }
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Error printing product report " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private boolean isWritten(final Path file, final ReportCache.Version version) {
+        synchronized (written) {
+            return version.equals(written.get(file));
+        }
+    }
+
+    /**
+     * <p>Writes the queued reports and stops the writer thread</p>
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS))
+                logger.log(Level.WARNING, "Warning! Report writer did not finish in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Report {
+        private final ReportCache.Version version;
+        private final String text;
+
+        private Report(final ReportCache.Version version, final String text) {
+            this.version = version;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Pending report of one file, guarded by its own monitor. A closed slot is out of the map and takes no more
+     * reports
+     */
+    private static class Slot {
+        private Report latest;
+        private boolean scheduled;
+        private boolean closed;
+    }
+}
@@ -18,6 +18,8 @@
 
 package labs.pm.data;
 
+import labs.pm.utils.json.JsonWriter;
+
 import java.io.Serializable;
 
 /**
@@ -73,6 +75,17 @@ public class Review implements Comparable<Review>, Serializable {
         return "Review: {rating: " + getRating() + ", comment: " + getComment() + "}";
     }
 
+    /**
+     * <p>Writes the review as a JSON object</p>
+     * @param json JsonWriter - output positioned where a value is expected
+     */
+    public void writeJSON(final JsonWriter json) {
+        json.beginObject()
+                .name("rating").value(getRating().ordinal())
+                .name("comment").value(getComment())
+                .endObject();
+    }
+
     @Override
     public int compareTo(Review other) {
         return other.getRating().ordinal() - this.getRating().ordinal();
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * <h2>Size-bounded LRU cache of loaded product reviews</h2>
+ * <p>FileName: ReviewCache.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 18:56</p>
+ * <p>Holds the resident ProductReviews of at most capacity products, the least recently used one is evicted.
+ * Loading happens outside of the cache monitor, so a slow load does not block hits on other products.</p>
+ * @author agent
+ */
+
+class ReviewCache {
+    private final int capacity;
+    private final Map<Integer, ProductReviews> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param capacity int - max number of products with resident reviews
+     */
+    ReviewCache(final int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(Math.min(capacity, 1 << 16), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Integer, ProductReviews> eldest) {
+                if (size() <= ReviewCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * <p>Returns the cached reviews of the product, loading them on a miss</p>
+     * @param id int - ID[SKU] product
+     * @param loader Supplier - loads resident reviews of the product
+     * @return ProductReviews - resident reviews
+     */
+    ProductReviews get(final int id, final Supplier<ProductReviews> loader) {
+        synchronized (this) {
+            ProductReviews reviews = entries.get(id);
+            if (reviews != null) {
+                hits++;
+                return reviews;
+            }
+            misses++;
+        }
+        ProductReviews loaded = loader.get();
+        synchronized (this) {
+            ProductReviews raced = entries.putIfAbsent(id, loaded);
+            return raced != null ? raced : loaded;
+        }
+    }
+
+    /**
+     * @param id int - ID[SKU] product
+     * @return cached reviews or null, not counted as a hit or a miss
+     */
+    synchronized ProductReviews peek(final int id) {
+        return entries.get(id);
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return Map - size, capacity, hits, misses and evictions of the cache
+     */
+    synchronized Map<String, Long> getStatistics() {
+        return Map.of(
+                "size", (long) entries.size(),
+                "capacity", (long) capacity,
+                "hits", hits,
+                "misses", misses,
+                "evictions", evictions);
+    }
+}
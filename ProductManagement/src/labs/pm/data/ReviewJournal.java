@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * <h2>Append-only journal of product reviews</h2>
+ * <p>FileName: ReviewJournal.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 18:52</p>
+ * <p>Every review is one line "{id}, {rating}, {comment}". Submissions are queued and a single writer thread
+ * group commits them: whatever arrived within the flush interval (up to the batch size) is written with one
+ * write and made durable with one fsync, then all submitters of the batch are released.</p>
+ * <p>Records are numbered from the start of the journal. Once a catalog snapshot contains them, compact() empties
+ * the file down to a header line "#{count}" holding the number of dropped records, so the numbers stay those
+ * the snapshot stores.</p>
+ * @author agent
+ */
+
+class ReviewJournal implements Closeable {
+    private static final Logger logger = Logger.getLogger(ReviewJournal.class.getName());
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int batchSize;
+    private final long flushInterval;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    /**
+     * Number of records journaled so far, including the queued and the compacted ones. Guarded by this
+     */
+    private long records;
+    /**
+     * Number of the first record in the file, the records before it were compacted. Guarded by this
+     */
+    private long base;
+    private long headerLength;
+    /**
+     * Completion of the last queued record. Guarded by this
+     */
+    private CompletableFuture<Void> last = CompletableFuture.completedFuture(null);
+    private volatile boolean closed;
+
+    /**
+     * <p>Opens (or creates) the journal and cuts off a torn last record left by a crash</p>
+     * @param file Path - journal file
+     * @param batchSize int - max number of records per group commit
+     * @param flushInterval long - max milliseconds a record waits for the rest of its batch
+     * @throws IOException when the journal file is not accessible
+     */
+    ReviewJournal(final Path file, final int batchSize, final long flushInterval) throws IOException {
+        this.file = file;
+        this.batchSize = Math.max(batchSize, 1);
+        this.flushInterval = Math.max(flushInterval, 0);
+        this.channel = FileChannel.open(file, CREATE, READ, WRITE);
+        recover();
+        writer = new Thread(this::writeLoop, "review-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * @return long - number of records written or queued so far, compacted ones included
+     */
+    synchronized long records() {
+        return records;
+    }
+
+    /**
+     * <p>Queues a review for the next group commit</p>
+     * @param id int - ID[SKU] of the reviewed product
+     * @param rating Rating - review rating
+     * @param comment String - review comment
+     * @return CompletableFuture completed once the record is on disk
+     */
+    synchronized CompletableFuture<Void> append(final int id, final Rating rating, final String comment) {
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        if (closed) {
+            durable.completeExceptionally(new IOException("Review journal " + file + " is closed"));
+            return durable;
+        }
+        records++;
+        last = durable;
+        queue.add(new Entry(encode(id, rating, comment), durable));
+        return durable;
+    }
+
+    /**
+     * <p>Reads the journal from the beginning and passes every record after the first skip records to the consumer.
+     * A journal shorter than skip was lost or replaced after the snapshot, all of its records are passed then.
+     * Only called before new records are appended</p>
+     * @param skip long - number of leading records already applied elsewhere
+     * @param consumer Replay - receiver of the records
+     * @return long - number of records passed to the consumer
+     * @throws IOException when the journal can not be read
+     */
+    long replay(final long skip, final Replay consumer) throws IOException {
+        long index = base;
+        long from = skip;
+        long replayed = 0;
+        if (skip > records) {
+            logger.log(Level.WARNING, "Warning! Review journal " + file + " holds " + records
+                    + " records, fewer than the " + skip + " of the catalog snapshot, replaying all of them");
+            from = base;
+        } else if (skip < base) {
+            logger.log(Level.WARNING, "Warning! Review journal " + file + " starts at record " + base
+                    + ", records " + skip + " to " + (base - 1) + " missing from the catalog snapshot are lost");
+        }
+        channel.position(headerLength);
+        BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (index++ < from) continue;
+            String[] value = line.split(", ", 3);
+            try {
+                consumer.accept(Integer.parseInt(value[0]),
+                        Rateable.convert(Integer.parseInt(value[1])),
+                        value.length > 2 ? unescape(value[2]) : "");
+                replayed++;
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                logger.log(Level.WARNING, "Warning! Error parsing journal record \"" + line + "\" ");
+            }
+        }
+        channel.position(channel.size());
+        return replayed;
+    }
+
+    /**
+     * <p>Drops the records a durable catalog snapshot contains: waits until the queued records are written,
+     * then empties the file down to the header. The caller holds off new reviews, when records were added
+     * after the snapshot nothing is dropped</p>
+     * @param covered long - records() at the time the snapshot was taken
+     * @throws IOException when the journal can not be rewritten
+     */
+    synchronized void compact(final long covered) throws IOException {
+        if (closed || covered != records || covered == base) return;
+        try {
+            last.join();
+        } catch (CompletionException e) {
+            throw new IOException("Review journal " + file + " has uncommitted records", e.getCause());
+        }
+        byte[] header = ("#" + covered + "\n").getBytes(StandardCharsets.US_ASCII);
+        channel.truncate(0);
+        channel.force(true);
+        channel.write(ByteBuffer.wrap(header), 0);
+        channel.force(true);
+        channel.position(header.length);
+        base = covered;
+        headerLength = header.length;
+    }
+
+    /**
+     * <p>Stops accepting reviews, commits everything already queued and closes the file</p>
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void recover() throws IOException {
+        long size = channel.size();
+        readHeader();
+        records = base;
+        long valid = headerLength;
+        ByteBuffer chunk = ByteBuffer.allocate(64 * 1024);
+        long position = headerLength;
+        while (position < size) {
+            chunk.clear();
+            int read = channel.read(chunk, position);
+            if (read < 0) break;
+            for (int i = 0; i < read; i++) {
+                if (chunk.get(i) == '\n') {
+                    records++;
+                    valid = position + i + 1;
+                }
+            }
+            position += read;
+        }
+        if (valid < size) {
+            logger.log(Level.WARNING, "Warning! Truncating torn record at the end of review journal " + file);
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+    }
+
+    /**
+     * Header line of a compacted journal, a torn one has no line end and is cut off as a torn record
+     */
+    private void readHeader() throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(24);
+        channel.read(head, 0);
+        if (head.position() == 0 || head.get(0) != '#') return;
+        for (int i = 1; i < head.position(); i++) {
+            if (head.get(i) == '\n') {
+                try {
+                    base = Long.parseLong(new String(head.array(), 1, i - 1, StandardCharsets.US_ASCII));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Damaged review journal header " + file, e);
+                }
+                headerLength = i + 1;
+                return;
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) continue;
+                    long wait = deadline - System.nanoTime();
+                    if (wait <= 0 || closed) break;
+                    Entry next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) commit(batch);
+            batch.clear();
+        }
+    }
+
+    private void commit(final List<Entry> batch) {
+        try {
+            buffer.clear();
+            for (Entry entry : batch) {
+                if (buffer.remaining() < entry.record.length) {
+                    buffer.flip();
+                    ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.limit() + entry.record.length));
+                    buffer = larger.put(buffer);
+                }
+                buffer.put(entry.record);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(false);
+            batch.forEach(entry -> entry.durable.complete(null));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error writing review journal " + e.getMessage(), e);
+            batch.forEach(entry -> entry.durable.completeExceptionally(e));
+        }
+    }
+
+    private static byte[] encode(final int id, final Rating rating, final String comment) {
+        return (id + ", " + rating.ordinal() + ", " + escape(comment) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String escape(final String text) {
+        if (text == null) return "";
+        return text.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(final String text) {
+        if (text.indexOf('\\') < 0) return text;
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                result.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else result.append(c);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Receiver of the replayed journal records
+     */
+    @FunctionalInterface
+    interface Replay {
+        void accept(int id, Rating rating, String comment);
+    }
+
+    private static class Entry {
+        private final byte[] record;
+        private final CompletableFuture<Void> durable;
+
+        private Entry(final byte[] record, final CompletableFuture<Void> durable) {
+            this.record = record;
+            this.durable = durable;
+        }
+    }
+}
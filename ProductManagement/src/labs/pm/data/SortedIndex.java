@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.IntPredicate;
+
+/**
+ * <h2>Sorted secondary index of the catalog</h2>
+ * <p>FileName: SortedIndex.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 20:07</p>
+ * <p>Entries of (value, product id) in a ConcurrentSkipListSet, so products on different stripes are re-indexed
+ * in parallel. A range walk costs O(log n) to find its start and then one step per entry, a top-N query stops
+ * after N matches instead of sorting the catalog. Product ids are resolved by the caller.</p>
+ *
+ * @author agent
+ */
+
+class SortedIndex {
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>();
+
+    void add(final long value, final int id) {
+        entries.add(new Entry(value, id));
+    }
+
+    void remove(final long value, final int id) {
+        entries.remove(new Entry(value, id));
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Passes the ids with a value in [from, to] to the visitor, ordered by value and then by id ascending
+     *
+     * @param descending boolean - highest value first, ids of equal values still ascending
+     * @param visitor    IntPredicate - receives the ids, returns false to stop the walk
+     */
+    void walk(final long from, final long to, final boolean descending, final IntPredicate visitor) {
+        if (from > to) return;
+        NavigableSet<Entry> range = entries.subSet(new Entry(from, Integer.MIN_VALUE), true,
+                new Entry(to, Integer.MAX_VALUE), true);
+        if (!descending) {
+            for (Entry entry : range) {
+                if (!visitor.test(entry.id)) return;
+            }
+            return;
+        }
+        Entry last = range.isEmpty() ? null : range.last();
+        while (last != null) {
+            long value = last.value;
+            for (Entry entry : range.subSet(new Entry(value, Integer.MIN_VALUE), true, last, true)) {
+                if (!visitor.test(entry.id)) return;
+            }
+            last = range.lower(new Entry(value, Integer.MIN_VALUE));
+        }
+    }
+
+    private static class Entry implements Comparable<Entry> {
+        private final long value;
+        private final int id;
+
+        private Entry(final long value, final int id) {
+            this.value = value;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(final Entry other) {
+            int byValue = Long.compare(value, other.value);
+            return byValue != 0 ? byValue : Integer.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026. agent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ * TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package labs.pm.data;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
+
+/**
+ * <h2>Bounded heap keeping the first k products of an order</h2>
+ * <p>FileName: TopK.java</p>
+ * <p>Date/time: 18 октябрь 2026 in 20:09</p>
+ * <p>The root of the heap is the last product kept, a candidate only enters by pushing it out, so n products
+ * cost O(n log k) instead of O(n log n) for a sort and the heap never holds more than k. As a Collector it runs
+ * on parallel streams, every worker keeps its own heap and the heaps are merged.</p>
+ *
+ * @author agent
+ */
+
+final class TopK {
+    private final Comparator<Product> order;
+    private final int k;
+    private final PriorityQueue<Product> heap;
+
+    private TopK(final Comparator<Product> order, final int k) {
+        this.order = order;
+        this.k = k;
+        this.heap = new PriorityQueue<>(Math.min(k, 1024) + 1, order.reversed());
+    }
+
+    /**
+     * @param order Comparator - a total order, equal products would be kept arbitrarily
+     * @param k     int - most products to keep
+     * @return Collector - the first k products in order
+     */
+    static Collector<Product, ?, List<Product>> of(final Comparator<Product> order, final int k) {
+        return Collector.of(() -> new TopK(order, k), TopK::offer, TopK::merge, TopK::sorted);
+    }
+
+    private void offer(final Product product) {
+        if (heap.size() < k) heap.add(product);
+        else if (k > 0 && order.compare(product, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(product);
+        }
+    }
+
+    private TopK merge(final TopK other) {
+        other.heap.forEach(this::offer);
+        return this;
+    }
+
+    private List<Product> sorted() {
+        List<Product> kept = new ArrayList<>(heap);
+        kept.sort(order);
+        return kept;
+    }
+}
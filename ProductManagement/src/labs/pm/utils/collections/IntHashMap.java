@@ -0,0 +1,196 @@
+package labs.pm.utils.collections;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static labs.pm.utils.collections.IntHashing.mix;
+import static labs.pm.utils.collections.IntHashing.tableSizeFor;
+
+/**
+ * Open addressing hash map with primitive int keys
+ * FileName: IntHashMap.java
+ * Date/time: 18 октябрь 2026 in 18:50
+ * <p>Keys are stored in a plain int[] with linear probing, so lookups never box the key.
+ * Removal uses backward shift deletion, no tombstones are left behind.</p>
+ * <p>The map is NOT thread safe. Structural modifications (adding a new key, removing a key)
+ * must be guarded externally; replacing the value of an existing key never moves entries.</p>
+ *
+ * @param <V> value type
+ * @author agent
+ */
+
+public class IntHashMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final int FREE = 0;
+
+    /**
+     * Key 0 is the free slot marker, so its value is kept aside
+     */
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    public IntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize int - number of entries the map should hold without resizing
+     */
+    public IntHashMap(final int expectedSize) {
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(final int key) {
+        if (key == FREE) return hasZeroKey ? zeroValue : null;
+        int[] keys = this.keys;
+        int mask = this.mask;
+        int index = mix(key) & mask;
+        int current;
+        while ((current = keys[index]) != FREE) {
+            if (current == key) return (V) values[index];
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(final int key) {
+        if (key == FREE) return hasZeroKey;
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return V - previous value or null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final int key, final V value) {
+        if (key == FREE) {
+            V previous = zeroValue;
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return previous;
+        }
+        int index = mix(key) & mask;
+        int current;
+        while ((current = keys[index]) != FREE) {
+            if (current == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size >= threshold) rehash(keys.length << 1);
+        return null;
+    }
+
+    /**
+     * @return V - removed value or null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(final int key) {
+        if (key == FREE) {
+            if (!hasZeroKey) return null;
+            V previous = zeroValue;
+            hasZeroKey = false;
+            zeroValue = null;
+            size--;
+            return previous;
+        }
+        int index = indexOf(key);
+        if (index < 0) return null;
+        V previous = (V) values[index];
+        shiftKeys(index);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachValue(final Consumer<? super V> action) {
+        if (hasZeroKey) action.accept(zeroValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) action.accept((V) values[i]);
+        }
+    }
+
+    private int indexOf(final int key) {
+        int index = mix(key) & mask;
+        int current;
+        while ((current = keys[index]) != FREE) {
+            if (current == key) return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Backward shift deletion: moves following entries of the same probe chain into the freed slot
+     */
+    private void shiftKeys(int position) {
+        int last;
+        int slot;
+        int current;
+        while (true) {
+            position = ((last = position) + 1) & mask;
+            while (true) {
+                if ((current = keys[position]) == FREE) {
+                    keys[last] = FREE;
+                    values[last] = null;
+                    return;
+                }
+                slot = mix(current) & mask;
+                if (last <= position ? last >= slot || slot > position : last >= slot && slot > position) break;
+                position = (position + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[position];
+        }
+    }
+
+    private void rehash(final int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key == FREE) continue;
+            int index = mix(key) & mask;
+            while (keys[index] != FREE) index = (index + 1) & mask;
+            keys[index] = key;
+            values[index] = oldValues[i];
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+}
@@ -0,0 +1,32 @@
+package labs.pm.utils.collections;
+
+/**
+ * Hashing shared by the int keyed maps
+ * FileName: IntHashing.java
+ * Date/time: 18 октябрь 2026 in 20:54
+ *
+ * @author agent
+ */
+
+final class IntHashing {
+
+    private IntHashing() {
+    }
+
+    /**
+     * Sequential ids would otherwise fill one dense run of slots
+     */
+    static int mix(final int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @param capacity int - number of slots needed
+     * @return int - smallest power of two table size above the capacity, at least 2
+     */
+    static int tableSizeFor(final int capacity) {
+        int n = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        return Math.max(n, 2);
+    }
+}
@@ -0,0 +1,189 @@
+package labs.pm.utils.collections;
+
+import java.util.Arrays;
+
+import static labs.pm.utils.collections.IntHashing.mix;
+import static labs.pm.utils.collections.IntHashing.tableSizeFor;
+
+/**
+ * Open addressing hash map with primitive int keys and int values
+ * FileName: IntIntHashMap.java
+ * Date/time: 18 октябрь 2026 in 20:29
+ * <p>The IntHashMap layout with an int[] of values, so neither keys nor values are boxed. A missing key reads
+ * as the noValue given to the constructor, which therefore cannot be stored as a value.</p>
+ * <p>The specialization is deliberate: IntHashMap&lt;Integer&gt; would box every row index it stores and
+ * returns. Hashing is shared through IntHashing, the probing stays duplicated for the primitive arrays.</p>
+ * <p>The map is NOT thread safe. Structural modifications (adding a new key, removing a key)
+ * must be guarded externally; replacing the value of an existing key never moves entries.</p>
+ *
+ * @author agent
+ */
+
+public class IntIntHashMap {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final int FREE = 0;
+
+    private final int noValue;
+    /**
+     * Key 0 is the free slot marker, so its value is kept aside
+     */
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    /**
+     * @param noValue int - returned for a missing key
+     */
+    public IntIntHashMap(final int noValue) {
+        this(DEFAULT_CAPACITY, noValue);
+    }
+
+    /**
+     * @param expectedSize int - number of entries the map should hold without resizing
+     * @param noValue int - returned for a missing key
+     */
+    public IntIntHashMap(final int expectedSize, final int noValue) {
+        this.noValue = noValue;
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return int - value of the key or noValue
+     */
+    public int get(final int key) {
+        if (key == FREE) return hasZeroKey ? zeroValue : noValue;
+        int[] keys = this.keys;
+        int mask = this.mask;
+        int index = mix(key) & mask;
+        int current;
+        while ((current = keys[index]) != FREE) {
+            if (current == key) return values[index];
+            index = (index + 1) & mask;
+        }
+        return noValue;
+    }
+
+    public boolean containsKey(final int key) {
+        if (key == FREE) return hasZeroKey;
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return int - previous value or noValue
+     */
+    public int put(final int key, final int value) {
+        if (key == FREE) {
+            int previous = hasZeroKey ? zeroValue : noValue;
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return previous;
+        }
+        int index = mix(key) & mask;
+        int current;
+        while ((current = keys[index]) != FREE) {
+            if (current == key) {
+                int previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size >= threshold) rehash(keys.length << 1);
+        return noValue;
+    }
+
+    /**
+     * @return int - removed value or noValue
+     */
+    public int remove(final int key) {
+        if (key == FREE) {
+            if (!hasZeroKey) return noValue;
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        int index = indexOf(key);
+        if (index < 0) return noValue;
+        int previous = values[index];
+        shiftKeys(index);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    private int indexOf(final int key) {
+        int index = mix(key) & mask;
+        int current;
+        while ((current = keys[index]) != FREE) {
+            if (current == key) return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Backward shift deletion: moves following entries of the same probe chain into the freed slot
+     */
+    private void shiftKeys(int position) {
+        int last;
+        int slot;
+        int current;
+        while (true) {
+            position = ((last = position) + 1) & mask;
+            while (true) {
+                if ((current = keys[position]) == FREE) {
+                    keys[last] = FREE;
+                    return;
+                }
+                slot = mix(current) & mask;
+                if (last <= position ? last >= slot || slot > position : last >= slot && slot > position) break;
+                position = (position + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[position];
+        }
+    }
+
+    private void rehash(final int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key == FREE) continue;
+            int index = mix(key) & mask;
+            while (keys[index] != FREE) index = (index + 1) & mask;
+            keys[index] = key;
+            values[index] = oldValues[i];
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+}
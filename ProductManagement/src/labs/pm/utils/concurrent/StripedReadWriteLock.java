@@ -0,0 +1,49 @@
+package labs.pm.utils.concurrent;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fixed set of read/write locks shared between keys by hash
+ * FileName: StripedReadWriteLock.java
+ * Date/time: 18 октябрь 2026 in 18:51
+ * <p>Operations on keys that land on different stripes never block each other.
+ * Whole-set operations take every stripe in ascending order, which is the only order
+ * allowed when more than one stripe is held, so no deadlock is possible.</p>
+ *
+ * @author agent
+ */
+
+public class StripedReadWriteLock {
+    private final ReentrantReadWriteLock[] stripes;
+    private final int mask;
+
+    /**
+     * @param concurrency int - minimal number of stripes, rounded up to a power of two
+     */
+    public StripedReadWriteLock(final int concurrency) {
+        int size = Integer.highestOneBit(Math.max(concurrency - 1, 1)) << 1;
+        stripes = new ReentrantReadWriteLock[size];
+        for (int i = 0; i < size; i++) stripes[i] = new ReentrantReadWriteLock();
+        mask = size - 1;
+    }
+
+    public ReentrantReadWriteLock forKey(final int key) {
+        int h = key * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    public int size() {
+        return stripes.length;
+    }
+
+    /**
+     * Takes the read lock of every stripe, writers of all keys are excluded until unlockAllRead()
+     */
+    public void lockAllRead() {
+        for (ReentrantReadWriteLock stripe : stripes) stripe.readLock().lock();
+    }
+
+    public void unlockAllRead() {
+        for (int i = stripes.length - 1; i >= 0; i--) stripes[i].readLock().unlock();
+    }
+}
@@ -0,0 +1,82 @@
+package labs.pm.utils.concurrent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Kind of thread that runs one blocking task
+ * FileName: ThreadMode.java
+ * Date/time: 18 октябрь 2026 in 19:10
+ * <p>PLATFORM starts an operating system thread per task, VIRTUAL starts a virtual thread per task. The project
+ * compiles for Java 17, so virtual threads are looked up at runtime and are used only when the JVM running the
+ * application has them (Java 21 and newer); otherwise VIRTUAL falls back to platform threads with a warning.</p>
+ *
+ * @author agent
+ */
+
+public enum ThreadMode {
+    PLATFORM, VIRTUAL;
+
+    private static final Logger logger = Logger.getLogger(ThreadMode.class.getName());
+    private static final MethodHandle VIRTUAL_EXECUTOR = lookupVirtualExecutor();
+    private static final AtomicBoolean fallbackReported = new AtomicBoolean();
+
+    /**
+     * @param name String - "platform" or "virtual", any case
+     */
+    public static ThreadMode of(final String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public static boolean isVirtualAvailable() {
+        return VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * @param name String - thread name prefix of platform threads
+     * @return ExecutorService starting a new thread for every submitted task, never queueing
+     */
+    public ExecutorService newThreadPerTaskExecutor(final String name) {
+        if (this == VIRTUAL) {
+            if (VIRTUAL_EXECUTOR != null) {
+                try {
+                    return (ExecutorService) VIRTUAL_EXECUTOR.invokeExact();
+                } catch (Throwable e) {
+                    logger.log(Level.WARNING, "Error creating virtual thread executor " + e.getMessage(), e);
+                }
+            }
+            if (fallbackReported.compareAndSet(false, true)) {
+                logger.log(Level.WARNING, "Virtual threads are not available on Java " + Runtime.version().feature()
+                        + ", running on platform threads");
+            }
+        }
+        return Executors.newCachedThreadPool(daemonThreads(name));
+    }
+
+    private static ThreadFactory daemonThreads(final String name) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static MethodHandle lookupVirtualExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package labs.pm.utils.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hashed timer wheel for many cheap, mostly cancelled timeouts
+ * FileName: TimerWheel.java
+ * Date/time: 18 октябрь 2026 in 19:55
+ * <p>One daemon thread advances a ring of slots every tick and fires the timers of the slot it reaches, so any
+ * number of timers costs one thread and a timer fires at most one tick late. A Timer is made once per owner
+ * (e.g. per connection) and armed again and again: arming a later deadline only sets it, the timer stays in its
+ * slot and is moved to the right one when the wheel gets there, disarming is setting no deadline. Arming takes a
+ * lock-free queue only when the timer is not in the wheel yet or the new deadline is before its slot, then the
+ * wheel moves it at the next tick. Deadlines further than one turn are checked once a turn until they are due.
+ * Tasks run on the wheel thread and must be short.</p>
+ *
+ * @author agent
+ */
+
+public final class TimerWheel implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(TimerWheel.class.getName());
+    private static final long DISARMED = 0;
+    private static final long UNPLACED = -1;
+
+    private final long tick;
+    private final ArrayDeque<Timer>[] slots;
+    private final int mask;
+    private final Queue<Timer> arriving = new ConcurrentLinkedQueue<>();
+    private final long origin = System.nanoTime();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private long reached;
+
+    /**
+     * @param name String - name of the wheel thread
+     * @param tickMillis long - resolution of the timers
+     * @param slots int - slots in the ring, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(final String name, final long tickMillis, final int slots) {
+        if (tickMillis < 1 || slots < 1) throw new IllegalArgumentException("Tick and slots must be positive");
+        this.tick = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        int size = Integer.highestOneBit(Math.max(slots - 1, 1)) << 1;
+        this.slots = (ArrayDeque<Timer>[]) new ArrayDeque<?>[size];
+        for (int i = 0; i < size; i++) this.slots[i] = new ArrayDeque<>();
+        this.mask = size - 1;
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @param task Runnable - runs on the wheel thread every time the timer expires
+     * @return Timer - disarmed timer
+     */
+    public Timer newTimer(final Runnable task) {
+        return new Timer(task);
+    }
+
+    /**
+     * Stops the wheel thread, armed timers never fire
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (running) {
+            long now = System.nanoTime();
+            long current = (now - origin) / tick;
+            Timer timer;
+            while ((timer = arriving.poll()) != null) {
+                if (timer.moving.compareAndSet(true, false)) {
+                    if (timer.slot == UNPLACED) continue;
+                    slots[(int) (timer.slot & mask)].remove(timer);
+                }
+                visit(timer, now, reached);
+            }
+            for (; reached <= current; reached++) {
+                ArrayDeque<Timer> slot = slots[(int) (reached & mask)];
+                for (int i = slot.size(); i > 0; i--) visit(slot.poll(), now, reached + 1);
+            }
+            LockSupport.parkNanos(origin + reached * tick - System.nanoTime());
+        }
+    }
+
+    /**
+     * Fires the timer if it is due, otherwise puts it into the slot of its deadline
+     *
+     * @param earliest long - first tick the timer may be put into, the slots before it are done
+     */
+    private void visit(final Timer timer, final long now, final long earliest) {
+        while (true) {
+            timer.slot = UNPLACED;
+            long deadline = timer.deadline.get();
+            if (deadline == DISARMED) {
+                timer.leave();
+                return;
+            }
+            if (deadline - now > 0) {
+                long due = Math.max(tickOf(deadline), earliest);
+                timer.slot = due;
+                if (timer.deadline.get() != deadline) continue;
+                slots[(int) (due & mask)].add(timer);
+                return;
+            }
+            if (timer.deadline.compareAndSet(deadline, DISARMED)) {
+                timer.leave();
+                try {
+                    timer.task.run();
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Timer task failed " + e.getMessage(), e);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return long - first tick at or after the deadline
+     */
+    private long tickOf(final long deadline) {
+        return (deadline - origin + tick - 1) / tick;
+    }
+
+    /**
+     * Reusable timeout, safe to arm and disarm from any thread
+     */
+    public final class Timer {
+        private final Runnable task;
+        private final AtomicLong deadline = new AtomicLong(DISARMED);
+        private final AtomicBoolean inWheel = new AtomicBoolean();
+        /**
+         * Queued again to be moved to an earlier slot
+         */
+        private final AtomicBoolean moving = new AtomicBoolean();
+        /**
+         * Tick of the slot holding the timer or UNPLACED, written by the wheel thread only. It is published before
+         * the wheel reads the deadline again, so either the wheel places the new deadline or arm() sees the slot
+         */
+        private volatile long slot = UNPLACED;
+
+        private Timer(final Runnable task) {
+            this.task = task;
+        }
+
+        /**
+         * Replaces any earlier deadline, a deadline before the slot of the timer moves it
+         *
+         * @param delayMillis long - the task runs this many milliseconds from now
+         */
+        public void arm(final long delayMillis) {
+            long next = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+            if (next == DISARMED) next = 1;
+            deadline.set(next);
+            if (inWheel.compareAndSet(false, true)) arriving.add(this);
+            else if (tickOf(next) < slot && moving.compareAndSet(false, true)) arriving.add(this);
+        }
+
+        public void disarm() {
+            deadline.set(DISARMED);
+        }
+
+        private void enter() {
+            if (inWheel.compareAndSet(false, true)) arriving.add(this);
+        }
+
+        /**
+         * Called by the wheel thread when it drops the timer, which comes back if it was armed meanwhile
+         */
+        private void leave() {
+            inWheel.set(false);
+            if (deadline.get() != DISARMED) enter();
+        }
+    }
+}
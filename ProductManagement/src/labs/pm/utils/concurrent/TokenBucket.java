@@ -0,0 +1,52 @@
+package labs.pm.utils.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket rate limiter
+ * FileName: TokenBucket.java
+ * Date/time: 18 октябрь 2026 in 19:44
+ * <p>Refills rate tokens per second up to burst tokens. Kept as a single "theoretical arrival time" (the generic
+ * cell rate algorithm), which behaves exactly like a token bucket but is one AtomicLong updated with a CAS, so
+ * threads taking tokens never block each other and no refill thread is needed.</p>
+ *
+ * @author agent
+ */
+
+public final class TokenBucket {
+    private final long interval;
+    private final long tolerance;
+    private final AtomicLong arrival = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param ratePerSecond double - tokens added per second
+     * @param burst int - tokens a full bucket holds
+     */
+    public TokenBucket(final double ratePerSecond, final int burst) {
+        if (ratePerSecond <= 0 || burst < 1) throw new IllegalArgumentException("Rate and burst must be positive");
+        this.interval = Math.max(1, (long) (1e9 / ratePerSecond));
+        this.tolerance = interval * (burst - 1);
+    }
+
+    /**
+     * @param now long - System.nanoTime()
+     * @return long - 0 if a token was taken, otherwise nanoseconds until the next token
+     */
+    public long tryTake(final long now) {
+        while (true) {
+            long current = arrival.get();
+            long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long wait = base - tolerance - now;
+            if (wait > 0) return wait;
+            if (arrival.compareAndSet(current, base + interval)) return 0;
+        }
+    }
+
+    /**
+     * @return true if the bucket has refilled completely, it then behaves like a new one
+     */
+    public boolean isFull(final long now) {
+        long current = arrival.get();
+        return current == Long.MIN_VALUE || current - now <= 0;
+    }
+}
@@ -0,0 +1,176 @@
+package labs.pm.utils.http;
+
+import labs.pm.utils.concurrent.TokenBucket;
+import labs.pm.utils.metrics.Metrics;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Overload protection shared by the server engines
+ * FileName: AdmissionControl.java
+ * Date/time: 18 октябрь 2026 in 19:44
+ * <p>Sheds load early and cheaply instead of letting every client slow down:</p>
+ * <li>-Dpm.http.max.connections (default 10000) - open connections, further ones get 503 right at accept</li>
+ * <li>-Dpm.http.max.inflight (default 256) - requests handled at once, 0 for no limit</li>
+ * <li>-Dpm.http.queue.size (default 1024) and -Dpm.http.queue.timeout (ms, default 250) - requests that may wait
+ * for a free slot and for how long, the rest get 503 with Retry-After at once</li>
+ * <li>-Dpm.http.rate and -Dpm.http.rate.burst - requests per second and burst per client address, 429 with
+ * Retry-After over it; 0 (the default) turns the rate limit off</li>
+ * <p>Refused requests close their connection. Counted as pm_http_admission_total by result.</p>
+ *
+ * @author agent
+ */
+
+final class AdmissionControl {
+    /**
+     * Number of clients above which buckets that refilled completely are dropped
+     */
+    private static final int MAX_CLIENTS = 65536;
+    private static final LongAdder SERVED = admission("served");
+    private static final LongAdder BUSY = admission("busy");
+    private static final LongAdder TOO_MANY_CONNECTIONS = admission("too_many_connections");
+    private static final LongAdder RATE_LIMITED = admission("rate_limited");
+
+    private final Semaphore inFlight;
+    private final Semaphore connections;
+    private final int maxQueued;
+    private final long queueTimeout;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final double rate;
+    private final int burst;
+    private final ConcurrentHashMap<InetAddress, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxInFlight int - requests handled at once, 0 for no limit
+     * @param maxQueued int - requests waiting for a slot
+     * @param queueTimeoutMillis long - longest wait for a slot
+     * @param maxConnections int - open connections, 0 for no limit
+     * @param rate double - requests per second per client address, 0 for no limit
+     * @param burst int - requests a client may send at once
+     */
+    AdmissionControl(final int maxInFlight, final int maxQueued, final long queueTimeoutMillis, final int maxConnections,
+                     final double rate, final int burst) {
+        this.inFlight = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
+        this.maxQueued = maxQueued;
+        this.queueTimeout = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+        this.connections = maxConnections > 0 ? new Semaphore(maxConnections) : null;
+        this.rate = rate;
+        this.burst = Math.max(burst, 1);
+    }
+
+    static AdmissionControl of() {
+        double rate = Double.parseDouble(System.getProperty("pm.http.rate", "0"));
+        return new AdmissionControl(Integer.getInteger("pm.http.max.inflight", 256),
+                Integer.getInteger("pm.http.queue.size", 1024),
+                Long.getLong("pm.http.queue.timeout", 250),
+                Integer.getInteger("pm.http.max.connections", 10000),
+                rate, Integer.getInteger("pm.http.rate.burst", (int) Math.ceil(rate)));
+    }
+
+    /**
+     * @return AdmissionControl that admits everything
+     */
+    static AdmissionControl unlimited() {
+        return new AdmissionControl(0, 0, 0, 0, 0, 1);
+    }
+
+    private static LongAdder admission(final String result) {
+        return Metrics.counter("pm_http_admission_total", "HTTP requests and connections by admission result", "result", result);
+    }
+
+    /**
+     * @return true if the connection may be served, disconnect() must follow it
+     */
+    boolean tryConnect() {
+        if (connections == null || connections.tryAcquire()) return true;
+        TOO_MANY_CONNECTIONS.increment();
+        return false;
+    }
+
+    void disconnect() {
+        if (connections != null) connections.release();
+    }
+
+    /**
+     * Answers 503 on a connection that is not admitted and closes it, from the accepting thread. The response is
+     * far smaller than the send buffer of a new socket, so the non-blocking write does not come back short
+     */
+    static void refuse(final SocketChannel channel) {
+        try (channel) {
+            channel.configureBlocking(false);
+            busy().write(channel);
+        } catch (IOException ignored) {
+            /* The client is gone already */
+        }
+    }
+
+    /**
+     * Takes a token of the client
+     *
+     * @return long - 0 if the request may go on, otherwise nanoseconds until the client may send the next one
+     */
+    long rateLimit(final InetAddress client) {
+        if (rate <= 0 || client == null) return 0;
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(client);
+        if (bucket == null) {
+            if (buckets.size() >= MAX_CLIENTS) buckets.values().removeIf(idle -> idle.isFull(now));
+            bucket = buckets.computeIfAbsent(client, address -> new TokenBucket(rate, burst));
+        }
+        long wait = bucket.tryTake(now);
+        if (wait > 0) RATE_LIMITED.increment();
+        return wait;
+    }
+
+    /**
+     * Takes an in-flight slot, release() must follow a successful call
+     *
+     * @param mayWait boolean - wait in the bounded queue for a slot, false on event loops
+     * @return true if the request may be handled, false if the server is busy
+     */
+    boolean acquire(final boolean mayWait) {
+        if (inFlight == null || inFlight.tryAcquire()) return true;
+        if (mayWait && queued.incrementAndGet() <= maxQueued) {
+            try {
+                if (inFlight.tryAcquire(queueTimeout, TimeUnit.NANOSECONDS)) return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                queued.decrementAndGet();
+            }
+        } else if (mayWait) {
+            queued.decrementAndGet();
+        }
+        BUSY.increment();
+        return false;
+    }
+
+    void release() {
+        if (inFlight != null) inFlight.release();
+        SERVED.increment();
+    }
+
+    /**
+     * @return Response - 503 asking the client to come back in a second
+     */
+    static Response busy() {
+        return StaticFiles.error(503, "Service Unavailable", "Retry-After: 1\r\n", false);
+    }
+
+    /**
+     * @param waitNanos long - time until the client gets its next token
+     * @return Response - 429 with the wait rounded up to whole seconds
+     */
+    static Response tooManyRequests(final long waitNanos) {
+        long seconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        return StaticFiles.error(429, "Too Many Requests", "Retry-After: " + seconds + "\r\n", false);
+    }
+}
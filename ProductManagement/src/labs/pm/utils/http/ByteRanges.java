@@ -0,0 +1,60 @@
+package labs.pm.utils.http;
+
+import java.util.Arrays;
+
+/**
+ * Range header of a request for part of a file
+ * FileName: ByteRanges.java
+ * Date/time: 18 октябрь 2026 in 19:24
+ * <p>Understands "bytes=" followed by a comma separated list of "first-last", "first-" and "-suffix" ranges.
+ * A header in any other form, or with more than MAX_RANGES ranges, is ignored and the whole file is sent.</p>
+ *
+ * @author agent
+ */
+
+final class ByteRanges {
+    static final int MAX_RANGES = 16;
+
+    private ByteRanges() {
+    }
+
+    /**
+     * @param header String - value of the Range header
+     * @param length long - file length
+     * @return long[] - first and last byte of every satisfiable range in request order, empty if none is
+     * satisfiable (416), null if the header has to be ignored (200)
+     */
+    static long[] parse(final String header, final long length) {
+        if (!header.startsWith("bytes=")) return null;
+        String[] specs = header.substring(6).split(",");
+        if (specs.length > MAX_RANGES) return null;
+        long[] ranges = new long[specs.length * 2];
+        int count = 0;
+        for (String spec : specs) {
+            spec = spec.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) return null;
+            long first;
+            long last;
+            try {
+                if (dash == 0) {
+                    long suffix = Long.parseLong(spec.substring(1));
+                    if (suffix < 0) return null;
+                    if (suffix == 0) continue;
+                    first = Math.max(length - suffix, 0);
+                    last = length - 1;
+                } else {
+                    first = Long.parseLong(spec.substring(0, dash));
+                    last = dash == spec.length() - 1 ? Long.MAX_VALUE : Long.parseLong(spec.substring(dash + 1));
+                    if (first < 0 || last < first) return null;
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (first >= length) continue;
+            ranges[count++] = first;
+            ranges[count++] = Math.min(last, length - 1);
+        }
+        return Arrays.copyOf(ranges, count);
+    }
+}
@@ -0,0 +1,97 @@
+package labs.pm.utils.http;
+
+import labs.pm.utils.concurrent.TimerWheel;
+import labs.pm.utils.metrics.Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read, header and write timeouts of one HTTP connection
+ * FileName: ConnectionDeadline.java
+ * Date/time: 18 октябрь 2026 in 19:55
+ * <p>Each server engine keeps all of its connections on one TimerWheel, every connection has a single timer
+ * that is armed again for each phase:</p>
+ * <li>IDLE - waiting for the first byte of a request, -Dpm.http.keepalive.timeout (ms, default 5000)</li>
+ * <li>HEADER - from the first byte to the end of the head, -Dpm.http.header.timeout (ms, default 10000), a client
+ * trickling the head byte by byte does not get more time</li>
+ * <li>BODY - reading a request body, -Dpm.http.read.timeout (ms, default 10000)</li>
+ * <li>WRITE - the client accepts no more of the response, -Dpm.http.write.timeout (ms, default 10000), armed again
+ * whenever the response makes progress</li>
+ * <p>An expired deadline runs the expiry of the engine, which closes the connection, and is counted as
+ * pm_http_timeouts_total by phase.</p>
+ *
+ * @author agent
+ */
+
+final class ConnectionDeadline {
+    static final long TICK_MILLIS = Long.getLong("pm.http.timer.tick", 100);
+
+    enum Phase {
+        IDLE("pm.http.keepalive.timeout", 5000),
+        HEADER("pm.http.header.timeout", 10000),
+        BODY("pm.http.read.timeout", 10000),
+        WRITE("pm.http.write.timeout", 10000);
+
+        private final long millis;
+        private final LongAdder expired;
+
+        Phase(final String property, final long millis) {
+            this.millis = Long.getLong(property, millis);
+            this.expired = Metrics.counter("pm_http_timeouts_total", "HTTP connections closed on a timeout",
+                    "phase", name().toLowerCase());
+        }
+    }
+
+    private final TimerWheel.Timer timer;
+    private final Runnable expiry;
+    private volatile Phase phase = Phase.IDLE;
+    private volatile boolean expired;
+
+    /**
+     * @param expiry Runnable - closes the connection, runs on the wheel thread
+     */
+    ConnectionDeadline(final TimerWheel wheel, final Runnable expiry) {
+        this.timer = wheel.newTimer(this::expire);
+        this.expiry = expiry;
+    }
+
+    static TimerWheel newWheel(final String name) {
+        return new TimerWheel(name, TICK_MILLIS, 512);
+    }
+
+    /**
+     * Starts the phase with its full timeout
+     */
+    void arm(final Phase phase) {
+        this.phase = phase;
+        timer.arm(phase.millis);
+    }
+
+    /**
+     * Gives the current phase its full timeout again
+     */
+    void progress() {
+        timer.arm(phase.millis);
+    }
+
+    Phase phase() {
+        return phase;
+    }
+
+    void disarm() {
+        timer.disarm();
+    }
+
+    /**
+     * @return true if the connection was closed because the deadline passed
+     */
+    boolean isExpired() {
+        return expired;
+    }
+
+    private void expire() {
+        expired = true;
+        phase.expired.increment();
+        expiry.run();
+    }
+}
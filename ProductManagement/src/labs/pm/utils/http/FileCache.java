@@ -0,0 +1,488 @@
+package labs.pm.utils.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Served files with ready to send responses
+ * FileName: FileCache.java
+ * Date/time: 18 октябрь 2026 in 19:14
+ * <p>Keeps an LRU set of entries up to a total number of bytes. An entry of a small file holds the complete 200
+ * header and the body, an entry of a large file only its header, the body is sent from disk with
+ * FileChannel.transferTo. Entries build the 200, 206, 304 and 416 responses of their file. A WatchService on the served directory drops entries of changed files, without it
+ * (e.g. the directory is not watchable) nothing is cached and every request reads the file attributes again.
+ * A file.gz next to a file at least as new is sent instead of it to clients accepting gzip. Otherwise cached
+ * bodies of compressible types are gzip or deflate compressed on first demand, the compressed bodies are kept
+ * in a second LRU set keyed by the file version (its ETag), so they stay correct even when the directory is not
+ * watched. Range requests are always answered from the uncompressed file.</p>
+ *
+ * @author agent
+ */
+
+final class FileCache {
+    private static final Logger logger = Logger.getLogger(FileCache.class.getName());
+    private static final int ENTRY_OVERHEAD = 256;
+    /**
+     * Smaller bodies gain less than the Content-Encoding header costs
+     */
+    private static final int MIN_COMPRESSED = 256;
+
+    private final Path root;
+    private final long capacity;
+    private final long maxFileSize;
+    private final long compressedCapacity;
+    private final Map<Path, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Version, Entry> compressed = new LinkedHashMap<>(64, 0.75f, true);
+    private final boolean watching;
+    private long size;
+    private long compressedSize;
+    private long generation;
+
+    /**
+     * @param directory String - served directory
+     * @param capacity long - max bytes held by all entries
+     * @param maxFileSize long - larger files are sent from disk
+     * @param compressedCapacity long - max bytes held by compressed bodies
+     */
+    FileCache(final String directory, final long capacity, final long maxFileSize, final long compressedCapacity) {
+        this.root = Path.of(directory).toAbsolutePath().normalize();
+        this.capacity = capacity;
+        this.maxFileSize = maxFileSize;
+        this.compressedCapacity = compressedCapacity;
+        this.watching = capacity > 0 && watch();
+    }
+
+    /**
+     * @return FileCache sized by -Dpm.http.cache.bytes (default 32 MB), -Dpm.http.cache.file.max (default 256 KB)
+     * and -Dpm.http.cache.compressed.bytes (default 8 MB)
+     */
+    static FileCache of(final String directory) {
+        return new FileCache(directory, Long.getLong("pm.http.cache.bytes", 32L << 20),
+                Long.getLong("pm.http.cache.file.max", 256L << 10),
+                Long.getLong("pm.http.cache.compressed.bytes", 8L << 20));
+    }
+
+    /**
+     * @param url String - request target, "/" means index.html, a query is ignored
+     * @param wait boolean - wait for a file read slot. Without one a small file gets an entry sent from disk like a
+     * large file, which is not cached, so a later request reads it
+     * @return Entry of an existing regular file inside the served directory or null
+     */
+    Entry lookup(final String url, final boolean wait) throws IOException {
+        int query = url.indexOf('?');
+        String relative = (query < 0 ? url : url.substring(0, query)).replaceFirst("^/+", "");
+        Path path;
+        try {
+            path = root.resolve(relative.isEmpty() ? "index.html" : relative).normalize();
+        } catch (InvalidPathException e) {
+            return null;
+        }
+        if (!path.startsWith(root)) return null;
+        long seen;
+        synchronized (this) {
+            Entry entry = entries.get(path);
+            if (entry != null) return entry;
+            seen = generation;
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (!attributes.isRegularFile()) return null;
+        byte[] body = attributes.size() <= maxFileSize ? StaticFiles.read(path, wait) : null;
+        Entry precompressed = precompressed(path, attributes, wait);
+        Entry entry = new Entry(path, body != null ? body.length : attributes.size(), attributes.lastModifiedTime().toInstant(),
+                body, precompressed);
+        if (watching && !isDeferred(entry) && (precompressed == null || !isDeferred(precompressed))) {
+            synchronized (this) {
+                if (seen == generation) {
+                    Entry replaced = entries.put(path, entry);
+                    size += entry.weight() - (replaced != null ? replaced.weight() : 0);
+                    evict();
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * @return Entry of the file.gz sibling if it is a regular file at least as new as the file, otherwise null
+     */
+    private Entry precompressed(final Path path, final BasicFileAttributes attributes, final boolean wait) throws IOException {
+        Path sibling = path.resolveSibling(path.getFileName() + ".gz");
+        BasicFileAttributes gzip;
+        try {
+            gzip = Files.readAttributes(sibling, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (!gzip.isRegularFile() || gzip.lastModifiedTime().compareTo(attributes.lastModifiedTime()) < 0) return null;
+        byte[] body = gzip.size() <= maxFileSize ? StaticFiles.read(sibling, wait) : null;
+        return new Entry(sibling, StaticFiles.contentType(path), body != null ? body.length : gzip.size(),
+                attributes.lastModifiedTime().toInstant(), etag(attributes.size(), attributes.lastModifiedTime().toInstant(), "gzip"),
+                "gzip", body, null);
+    }
+
+    /**
+     * @return true if the body of a file small enough to be held was not read for lack of a read slot
+     */
+    private boolean isDeferred(final Entry entry) {
+        return entry.bytes == null && entry.length <= maxFileSize;
+    }
+
+    /**
+     * Picks the representation of the file for the Accept-Encoding of the request, gzip wins a tie with deflate.
+     * Two requests for a body not compressed yet may both compress it, the later one is kept
+     *
+     * @param acceptEncoding String - Accept-Encoding header or null
+     * @return Entry - compressed entry or the entry itself if the client accepts no better encoding
+     */
+    Entry select(final Entry entry, final String acceptEncoding) throws IOException {
+        if (acceptEncoding == null || !entry.vary) return entry;
+        float gzip = StaticFiles.quality(acceptEncoding, "gzip");
+        float deflate = StaticFiles.quality(acceptEncoding, "deflate");
+        if (entry.precompressed != null && gzip > 0 && gzip >= deflate) return entry.precompressed;
+        if (!entry.compressible || gzip <= 0 && deflate <= 0) return entry;
+        String encoding = gzip >= deflate ? "gzip" : "deflate";
+        Version version = new Version(entry.path, entry.etag, encoding);
+        synchronized (this) {
+            Entry cached = compressed.get(version);
+            if (cached != null) return cached;
+        }
+        byte[] body = StaticFiles.compress(entry.bytes, encoding);
+        Entry selected = body.length < entry.length
+                ? new Entry(entry.path, entry.contentType, body.length, Instant.ofEpochSecond(entry.lastModifiedSeconds),
+                etag(entry.etag, encoding), encoding, body, null)
+                : entry;
+        if (compressedCapacity > 0) {
+            synchronized (this) {
+                Entry replaced = compressed.put(version, selected);
+                compressedSize += compressedWeight(selected) - (replaced != null ? compressedWeight(replaced) : 0);
+                evictCompressed();
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Drops the entry of the file and of everything below it if it is a directory, a changed file.gz drops the
+     * entry of its file
+     */
+    synchronized void invalidate(final Path changed) {
+        generation++;
+        String name = changed.getFileName() != null ? changed.getFileName().toString() : "";
+        Path original = name.endsWith(".gz") ? changed.resolveSibling(name.substring(0, name.length() - 3)) : null;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.path.startsWith(changed) || entry.path.equals(original)) {
+                size -= entry.weight();
+                iterator.remove();
+            }
+        }
+        Iterator<Map.Entry<Version, Entry>> versions = compressed.entrySet().iterator();
+        while (versions.hasNext()) {
+            Map.Entry<Version, Entry> version = versions.next();
+            if (version.getKey().path.startsWith(changed)) {
+                compressedSize -= compressedWeight(version.getValue());
+                versions.remove();
+            }
+        }
+    }
+
+    synchronized void clear() {
+        generation++;
+        entries.clear();
+        size = 0;
+        compressed.clear();
+        compressedSize = 0;
+    }
+
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (size > capacity && eldest.hasNext()) {
+            size -= eldest.next().weight();
+            eldest.remove();
+        }
+    }
+
+    private void evictCompressed() {
+        Iterator<Entry> eldest = compressed.values().iterator();
+        while (compressedSize > compressedCapacity && eldest.hasNext()) {
+            compressedSize -= compressedWeight(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * An uncompressed entry is kept as the answer for bodies that do not get smaller, its body is counted by entries
+     */
+    private static long compressedWeight(final Entry entry) {
+        return entry.encoding == null ? ENTRY_OVERHEAD : entry.weight();
+    }
+
+    private static String etag(final long length, final Instant lastModified, final String encoding) {
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified.toEpochMilli()) + "\"";
+        return encoding == null ? etag : etag(etag, encoding);
+    }
+
+    /**
+     * @return String - ETag of the encoded body, a strong ETag has to differ between encodings of the same file
+     */
+    private static String etag(final String etag, final String encoding) {
+        return etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+    }
+
+    /**
+     * Key of a compressed body, etag changes with the file
+     */
+    private record Version(Path path, String etag, String encoding) {
+    }
+
+    private boolean watch() {
+        try {
+            WatchService watchService = root.getFileSystem().newWatchService();
+            register(watchService, root);
+            Thread watcher = new Thread(() -> watchLoop(watchService), "http-file-watch");
+            watcher.setDaemon(true);
+            watcher.start();
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Served files are not cached, error watching " + root + " " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private void register(final WatchService watchService, final Path directory) throws IOException {
+        try (Stream<Path> directories = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) directories.filter(Files::isDirectory)::iterator) {
+                path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+    }
+
+    private void watchLoop(final WatchService watchService) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        clear();
+                        continue;
+                    }
+                    Path changed = directory.resolve((Path) event.context());
+                    invalidate(changed);
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changed)) {
+                        try {
+                            register(watchService, changed);
+                        } catch (IOException e) {
+                            logger.log(Level.WARNING, "Error watching " + changed + " " + e.getMessage(), e);
+                        }
+                    }
+                }
+                if (!key.reset()) invalidate(directory);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            clear();
+        }
+    }
+
+    /**
+     * Validators and prepared responses of one file
+     */
+    static final class Entry {
+        private final Path path;
+        private final long length;
+        private final String contentType;
+        private final String etag;
+        private final String encoding;
+        private final String validators;
+        private final long lastModifiedSeconds;
+        private final ByteBuffer header;
+        private final byte[] bytes;
+        private final ByteBuffer body;
+        private final ByteBuffer notModified;
+        private final Entry precompressed;
+        private final boolean compressible;
+        private final boolean vary;
+
+        private Entry(final Path path, final long length, final Instant lastModified, final byte[] body, final Entry precompressed) {
+            this(path, StaticFiles.contentType(path), length, lastModified, FileCache.etag(length, lastModified, null), null, body, precompressed);
+        }
+
+        /**
+         * @param path Path - file the body is sent from, file.gz for a precompressed entry
+         * @param encoding String - Content-Encoding of the body, null if not encoded
+         * @param precompressed Entry - gzip encoded entry of the file.gz sibling or null
+         */
+        private Entry(final Path path, final String contentType, final long length, final Instant lastModified, final String etag,
+                      final String encoding, final byte[] body, final Entry precompressed) {
+            this.path = path;
+            this.length = length;
+            this.etag = etag;
+            this.encoding = encoding;
+            this.lastModifiedSeconds = lastModified.getEpochSecond();
+            this.contentType = contentType;
+            this.precompressed = precompressed;
+            this.compressible = encoding == null && body != null && body.length >= MIN_COMPRESSED
+                    && StaticFiles.isCompressible(contentType);
+            this.vary = encoding != null || precompressed != null || compressible;
+            this.validators = "ETag: " + etag + "\r\n"
+                    + "Last-Modified: " + DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                    ZonedDateTime.ofInstant(Instant.ofEpochSecond(lastModifiedSeconds), ZoneOffset.UTC)) + "\r\n"
+                    + (vary ? "Vary: Accept-Encoding\r\n" : "");
+            this.header = ByteBuffer.wrap(StaticFiles.header(200, "OK", contentType, length, validators
+                    + (encoding != null ? "Content-Encoding: " + encoding + "\r\n" : "Accept-Ranges: bytes\r\n"))).asReadOnlyBuffer();
+            this.bytes = body;
+            this.body = body != null ? ByteBuffer.wrap(body).asReadOnlyBuffer() : null;
+            this.notModified = ByteBuffer.wrap(StaticFiles.notModified(validators)).asReadOnlyBuffer();
+        }
+
+        long getLength() {
+            return length;
+        }
+
+        String etag() {
+            return etag;
+        }
+
+        /**
+         * @return true if the body is in memory, otherwise it is sent from the file
+         */
+        boolean isCached() {
+            return body != null;
+        }
+
+        /**
+         * @param head boolean - HEAD request, the same header without the body
+         * @return Response - 200 with the whole file
+         */
+        Response full(final boolean keepAlive, final boolean head) {
+            if (head) return Response.of(header.duplicate(), StaticFiles.end(keepAlive));
+            if (body != null) return Response.of(header.duplicate(), StaticFiles.end(keepAlive), body.duplicate());
+            return new Response.Builder(path).add(header.duplicate()).add(StaticFiles.end(keepAlive)).addRegion(0, length).build();
+        }
+
+        Response notModified(final boolean keepAlive) {
+            return Response.of(notModified.duplicate(), StaticFiles.end(keepAlive));
+        }
+
+        /**
+         * @param ranges long[] - first and last byte of each range, see ByteRanges.parse()
+         * @return Response - 206 with one range as the body, or a multipart/byteranges body of several
+         */
+        Response partial(final long[] ranges, final boolean keepAlive, final boolean head) {
+            Response.Builder response = new Response.Builder(path);
+            if (ranges.length == 2) {
+                response.add(ByteBuffer.wrap(StaticFiles.header(206, "Partial Content", contentType, ranges[1] - ranges[0] + 1,
+                        contentRange(ranges[0], ranges[1]) + validators))).add(StaticFiles.end(keepAlive));
+                if (!head) addBody(response, ranges[0], ranges[1]);
+                return response.build();
+            }
+            String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+            byte[][] partHeaders = new byte[ranges.length / 2][];
+            long bodyLength = 0;
+            for (int i = 0; i < ranges.length; i += 2) {
+                partHeaders[i / 2] = ("\r\n--" + boundary + "\r\nContent-Type: " + contentType + "\r\n"
+                        + contentRange(ranges[i], ranges[i + 1]) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+                bodyLength += partHeaders[i / 2].length + ranges[i + 1] - ranges[i] + 1;
+            }
+            byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+            bodyLength += closing.length;
+            response.add(ByteBuffer.wrap(StaticFiles.header(206, "Partial Content", "multipart/byteranges; boundary=" + boundary,
+                    bodyLength, validators))).add(StaticFiles.end(keepAlive));
+            if (head) return response.build();
+            for (int i = 0; i < ranges.length; i += 2) {
+                response.add(ByteBuffer.wrap(partHeaders[i / 2]));
+                addBody(response, ranges[i], ranges[i + 1]);
+            }
+            return response.add(ByteBuffer.wrap(closing)).build();
+        }
+
+        /**
+         * @return Response - 416 when no requested range overlaps the file
+         */
+        Response unsatisfiable(final boolean keepAlive) {
+            return Response.of(ByteBuffer.wrap(("HTTP/1.1 416 Range Not Satisfiable\r\n"
+                    + "Content-Range: bytes */" + length + "\r\n"
+                    + "Content-Length: 0\r\n").getBytes(StandardCharsets.US_ASCII)), StaticFiles.end(keepAlive));
+        }
+
+        /**
+         * If-Range holds the ETag or Last-Modified the client has, other values mean a changed file
+         *
+         * @param ifRange String - If-Range header or null
+         * @return true if the Range header applies, false if the whole file has to be sent
+         */
+        boolean isRangeCurrent(final String ifRange) {
+            if (ifRange == null) return true;
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) return ifRange.equals(etag);
+            try {
+                return ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond() == lastModifiedSeconds;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+
+        private void addBody(final Response.Builder response, final long first, final long last) {
+            if (body == null) {
+                response.addRegion(first, last - first + 1);
+                return;
+            }
+            ByteBuffer slice = body.duplicate();
+            slice.limit((int) last + 1).position((int) first);
+            response.add(slice);
+        }
+
+        private String contentRange(final long first, final long last) {
+            return "Content-Range: bytes " + first + "-" + last + "/" + length + "\r\n";
+        }
+
+        /**
+         * If-None-Match wins over If-Modified-Since, as RFC 7232 requires
+         *
+         * @return true if the client copy is current and 304 should be sent
+         */
+        boolean isNotModified(final HttpRequest request) {
+            String ifNoneMatch = request.header("if-none-match");
+            if (ifNoneMatch != null) {
+                for (String tag : ifNoneMatch.split(",")) {
+                    tag = tag.trim();
+                    if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) return true;
+                }
+                return false;
+            }
+            String ifModifiedSince = request.header("if-modified-since");
+            if (ifModifiedSince == null) return false;
+            try {
+                return ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond() >= lastModifiedSeconds;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+
+        private long weight() {
+            return ENTRY_OVERHEAD + header.capacity() + notModified.capacity() + (body != null ? body.capacity() : 0)
+                    + (precompressed != null ? precompressed.weight() : 0);
+        }
+    }
+}
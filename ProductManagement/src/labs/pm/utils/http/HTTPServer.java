@@ -1,13 +1,32 @@
 package labs.pm.utils.http;
 
+import labs.pm.data.CommodityManager;
+import labs.pm.utils.concurrent.ThreadMode;
+import labs.pm.utils.concurrent.TimerWheel;
+
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Incoming web request handler
  * FileName: HTTPServer.java
  * Date/time: 01 май 2021 in 21:10
+ * <p>Usage: HTTPServer port directory [thread|virtual|nio] [event loops]. The default "thread" engine runs a
+ * Worker on a platform thread per connection, "virtual" on a virtual thread per connection (Java 21 and newer),
+ * "nio" serves all connections from a few event loops (NioHTTPServer). The thread engines also answer the JSON
+ * requests under /api/ from the CommodityManager (RestApi), the nio engine serves static files only since adding
+ * a review blocks on the disk. Both serve GET /metrics in the Prometheus text format (MetricsEndpoint) and
+ * limit connections, in-flight requests and the request rate of every client (AdmissionControl) and close
+ * connections that are idle, slow to send a request or slow to read the response (ConnectionDeadline).</p>
  *
  * @author Andrei G. Pastushenko
  */
@@ -16,26 +35,92 @@ public class HTTPServer {
 
     private final int port;
     private final String directory;
+    private static final Logger logger = Logger.getLogger(HTTPServer.class.getName());
+    /**
+     * Pause after a failed accept, e.g. out of file descriptors, so the loop does not spin on the error
+     */
+    private static final long ACCEPT_BACKOFF_MILLIS = 50;
+
+    private final ThreadMode threadMode;
+    private final AdmissionControl admission;
 
     public static void main(String[] args) {
         int port = Integer.parseInt(args[0]);
         System.out.println(args[1]);
         String directory = args[1];
-        new HTTPServer(port, directory).start();
+        String engine = args.length > 2 ? args[2] : "thread";
+        switch (engine) {
+            case "thread" -> new HTTPServer(port, directory).start();
+            case "virtual" -> new HTTPServer(port, directory, ThreadMode.VIRTUAL).start();
+            case "nio" -> new NioHTTPServer(port, directory,
+                    args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors()).start();
+            default -> System.out.println("Unknown server engine " + engine + ", expected thread, virtual or nio");
+        }
     }
 
     public HTTPServer(final int port, final String directory) {
+        this(port, directory, ThreadMode.PLATFORM);
+    }
+
+    public HTTPServer(final int port, final String directory, final ThreadMode threadMode) {
+        this(port, directory, threadMode, AdmissionControl.of());
+    }
+
+    HTTPServer(final int port, final String directory, final ThreadMode threadMode, final AdmissionControl admission) {
         this.port = port;
         this.directory = directory;
+        this.threadMode = threadMode;
+        this.admission = admission;
     }
 
     void start() {
-        try (final ServerSocket server = new ServerSocket(this.port)) {
+        ExecutorService workers = threadMode.newThreadPerTaskExecutor("http-worker");
+        FileCache files = FileCache.of(this.directory);
+        RestApi api = new RestApi(CommodityManager::getInstance);
+        LongAdder connections = MetricsEndpoint.connections(threadMode == ThreadMode.VIRTUAL ? "virtual" : "thread");
+        try (final ServerSocketChannel server = ServerSocketChannel.open();
+             final TimerWheel timeouts = ConnectionDeadline.newWheel("http-timeouts")) {
+            server.bind(new InetSocketAddress(this.port), 1024);
             while (true) {
-                Socket socket = server.accept();
-                Thread thread = new Worker(socket, this.directory);
-                thread.start();
+                SocketChannel channel = accept(server);
+                if (channel == null) continue;
+                connections.increment();
+                if (!admission.tryConnect()) {
+                    AdmissionControl.refuse(channel);
+                    continue;
+                }
+                try {
+                    workers.execute(new Worker(channel, files, api, admission, timeouts));
+                } catch (RejectedExecutionException e) {
+                    admission.disconnect();
+                    AdmissionControl.refuse(channel);
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "HTTP server stopped " + e.getMessage(), e);
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * @return SocketChannel - accepted connection, null after an error that leaves the server usable
+     * @throws ClosedChannelException when the server channel is closed
+     */
+    static SocketChannel accept(final ServerSocketChannel server) throws ClosedChannelException {
+        try {
+            return server.accept();
+        } catch (ClosedChannelException e) {
+            throw e;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Error accepting connection " + e.getMessage(), e);
+            try {
+                Thread.sleep(ACCEPT_BACKOFF_MILLIS);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                throw new ClosedByInterruptException();
             }
-        } catch (IOException FuckedUpIgnore) {/* Do nothing*/}
+            return null;
+        }
     }
 }
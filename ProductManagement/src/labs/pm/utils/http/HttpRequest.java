@@ -0,0 +1,192 @@
+package labs.pm.utils.http;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request line and headers of an incoming request
+ * FileName: HttpRequest.java
+ * Date/time: 18 октябрь 2026 in 19:14
+ * <p>Parses the head straight from the received bytes in one pass and keeps only offsets into that buffer, so a
+ * connection reuses one instance for all of its requests and nothing is allocated until a value is asked for.
+ * The head ends with an empty line and must fit into MAX_HEAD bytes with at most MAX_HEADERS headers. Several
+ * pipelined requests may share a buffer, every head is parsed from its offset. The buffer must not change
+ * while the parsed request is in use.</p>
+ *
+ * @author agent
+ */
+
+final class HttpRequest {
+    static final int MAX_HEAD = 8 * 1024;
+    static final int MAX_HEADERS = 64;
+    static final int INCOMPLETE = 0;
+    static final int MALFORMED = -1;
+
+    /**
+     * tchar of RFC 7230: visible ASCII except delimiters
+     */
+    private static final boolean[] TOKEN = new boolean[128];
+
+    static {
+        for (char c = '!'; c < 0x7F; c++) TOKEN[c] = "\"(),/:;<=>?@[\\]{}".indexOf(c) < 0;
+    }
+
+    private final int[] headers = new int[MAX_HEADERS * 4];
+    private int headerCount;
+    private byte[] buffer;
+    private int methodStart;
+    private int methodEnd;
+    private int targetStart;
+    private int targetEnd;
+    private boolean http11;
+    private String target;
+
+    /**
+     * @param buffer byte[] - received bytes
+     * @param offset int - start of the request line
+     * @param end int - end of the received bytes
+     * @return int - length of the head including the empty line, INCOMPLETE or MALFORMED
+     */
+    int parse(final byte[] buffer, final int offset, final int end) {
+        this.buffer = buffer;
+        this.target = null;
+        this.headerCount = 0;
+        int i = offset;
+        methodStart = i;
+        while (i < end && isTokenChar(buffer[i])) i++;
+        if (i == end) return INCOMPLETE;
+        if (buffer[i] != ' ' || i == methodStart) return MALFORMED;
+        methodEnd = i++;
+        targetStart = i;
+        while (i < end && buffer[i] > ' ' && buffer[i] != 0x7F) i++;
+        if (i == end) return INCOMPLETE;
+        if (buffer[i] != ' ' || i == targetStart) return MALFORMED;
+        targetEnd = i++;
+        int versionStart = i;
+        while (i < end && buffer[i] != '\r') i++;
+        if (i + 1 >= end) return INCOMPLETE;
+        if (buffer[i + 1] != '\n' || i - versionStart != 8 || !matches(versionStart, "HTTP/1.")) return MALFORMED;
+        http11 = buffer[versionStart + 7] == '1';
+        if (!http11 && buffer[versionStart + 7] != '0') return MALFORMED;
+        i += 2;
+        while (true) {
+            if (i + 1 >= end) return INCOMPLETE;
+            if (buffer[i] == '\r') return buffer[i + 1] == '\n' ? i + 2 - offset : MALFORMED;
+            if (headerCount == MAX_HEADERS) return MALFORMED;
+            int nameStart = i;
+            while (i < end && isTokenChar(buffer[i])) i++;
+            if (i == end) return INCOMPLETE;
+            if (buffer[i] != ':' || i == nameStart) return MALFORMED;
+            int nameEnd = i++;
+            while (i < end && (buffer[i] == ' ' || buffer[i] == '\t')) i++;
+            int valueStart = i;
+            while (i < end && buffer[i] != '\r') i++;
+            if (i + 1 >= end) return INCOMPLETE;
+            if (buffer[i + 1] != '\n') return MALFORMED;
+            int valueEnd = i;
+            while (valueEnd > valueStart && (buffer[valueEnd - 1] == ' ' || buffer[valueEnd - 1] == '\t')) valueEnd--;
+            int slot = headerCount++ * 4;
+            headers[slot] = nameStart;
+            headers[slot + 1] = nameEnd;
+            headers[slot + 2] = valueStart;
+            headers[slot + 3] = valueEnd;
+            i += 2;
+        }
+    }
+
+    /**
+     * @param method String - upper case method name
+     */
+    boolean isMethod(final String method) {
+        return methodEnd - methodStart == method.length() && matches(methodStart, method);
+    }
+
+    String getMethod() {
+        return new String(buffer, methodStart, methodEnd - methodStart, StandardCharsets.US_ASCII);
+    }
+
+    String getTarget() {
+        if (target == null) target = new String(buffer, targetStart, targetEnd - targetStart, StandardCharsets.ISO_8859_1);
+        return target;
+    }
+
+    /**
+     * HTTP/1.1 connections stay open unless the client asks to close, HTTP/1.0 ones only on request
+     */
+    boolean isKeepAlive() {
+        int slot = find("connection");
+        return http11
+                ? slot < 0 || !equalsIgnoreCase(headers[slot + 2], headers[slot + 3], "close")
+                : slot >= 0 && equalsIgnoreCase(headers[slot + 2], headers[slot + 3], "keep-alive");
+    }
+
+    /**
+     * Content-Length of RFC 9112 section 6.3. Repeated headers and comma separated lists are accepted only if all
+     * values are the same
+     *
+     * @return long - length of the body following the head, 0 without Content-Length, MALFORMED if a value is not
+     * a decimal number, the values differ or Transfer-Encoding is sent as well
+     */
+    long getContentLength() {
+        long length = MALFORMED;
+        for (int slot = 0; slot < headerCount * 4; slot += 4) {
+            if (!equalsIgnoreCase(headers[slot], headers[slot + 1], "content-length")) continue;
+            int i = headers[slot + 2];
+            int end = headers[slot + 3];
+            while (true) {
+                int digits = i;
+                long value = 0;
+                while (i < end && buffer[i] >= '0' && buffer[i] <= '9' && i - digits < 18) {
+                    value = value * 10 + buffer[i++] - '0';
+                }
+                if (i == digits || length != MALFORMED && value != length) return MALFORMED;
+                length = value;
+                while (i < end && (buffer[i] == ' ' || buffer[i] == '\t')) i++;
+                if (i == end) break;
+                if (buffer[i++] != ',') return MALFORMED;
+                while (i < end && (buffer[i] == ' ' || buffer[i] == '\t')) i++;
+            }
+        }
+        if (length == MALFORMED) return 0;
+        return find("transfer-encoding") < 0 ? length : MALFORMED;
+    }
+
+    /**
+     * @param name String - header name in lower case
+     * @return String - value of the first header with this name or null
+     */
+    String header(final String name) {
+        int slot = find(name);
+        return slot < 0 ? null : new String(buffer, headers[slot + 2], headers[slot + 3] - headers[slot + 2], StandardCharsets.ISO_8859_1);
+    }
+
+    private int find(final String name) {
+        for (int slot = 0; slot < headerCount * 4; slot += 4) {
+            if (equalsIgnoreCase(headers[slot], headers[slot + 1], name)) return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * @param lowerCase String - ASCII text in lower case
+     */
+    private boolean equalsIgnoreCase(final int start, final int end, final String lowerCase) {
+        if (end - start != lowerCase.length()) return false;
+        for (int i = 0; i < lowerCase.length(); i++) {
+            int b = buffer[start + i];
+            if (b >= 'A' && b <= 'Z') b += 'a' - 'A';
+            if (b != lowerCase.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private boolean matches(final int start, final String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (buffer[start + i] != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isTokenChar(final byte b) {
+        return b > 0 && TOKEN[b];
+    }
+}
@@ -0,0 +1,57 @@
+package labs.pm.utils.http;
+
+import labs.pm.utils.metrics.LatencyHistogram;
+import labs.pm.utils.metrics.Metrics;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prometheus scrape target
+ * FileName: MetricsEndpoint.java
+ * Date/time: 18 октябрь 2026 in 19:40
+ * <p>GET /metrics renders labs.pm.utils.metrics.Metrics in the Prometheus text format. Rendering only reads
+ * the metrics, so both server engines answer it on the connection thread or event loop. The metrics of the
+ * servers themselves are kept here: request time from the parsed head to the last byte written, per route.</p>
+ *
+ * @author agent
+ */
+
+final class MetricsEndpoint {
+    static final String PATH = "/metrics";
+    static final LatencyHistogram STATIC_TIME = requestTime("static");
+    static final LatencyHistogram API_TIME = requestTime("api");
+    static final LatencyHistogram METRICS_TIME = requestTime("metrics");
+    static final LongAdder BAD_REQUESTS = Metrics.counter("pm_http_bad_requests_total",
+            "Requests refused as malformed, too large or not supported");
+
+    private static LatencyHistogram requestTime(final String route) {
+        return Metrics.histogram("pm_http_request_seconds", "HTTP request handling time", "route", route);
+    }
+
+    static LongAdder connections(final String engine) {
+        return Metrics.counter("pm_http_connections_total", "Accepted HTTP connections", "engine", engine);
+    }
+
+    private MetricsEndpoint() {
+    }
+
+    static boolean handles(final HttpRequest request) {
+        String target = request.getTarget();
+        return target.startsWith(PATH) && (target.length() == PATH.length() || target.charAt(PATH.length()) == '?');
+    }
+
+    /**
+     * @return Response - 200 with the current metrics, 405 for other methods than GET and HEAD
+     */
+    static Response respond(final HttpRequest request, final boolean keepAlive) {
+        boolean head = request.isMethod("HEAD");
+        if (!head && !request.isMethod("GET")) return StaticFiles.error(405, "Method Not Allowed", "Allow: GET, HEAD\r\n", keepAlive);
+        byte[] body = Metrics.scrape().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.wrap(StaticFiles.header(200, "OK", Metrics.CONTENT_TYPE, body.length, "Cache-Control: no-store\r\n"));
+        return head
+                ? Response.of(header, StaticFiles.end(keepAlive))
+                : Response.of(header, StaticFiles.end(keepAlive), ByteBuffer.wrap(body));
+    }
+}
@@ -0,0 +1,254 @@
+package labs.pm.utils.http;
+
+import labs.pm.utils.concurrent.TimerWheel;
+import labs.pm.utils.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Incoming web request handler on java.nio event loops
+ * FileName: NioHTTPServer.java
+ * Date/time: 18 октябрь 2026 in 19:07
+ * <p>The accepting thread hands every connection to one of a few event loop threads round robin. Each loop owns
+ * a Selector and serves all of its connections with non-blocking reads and writes, so thousands of connections
+ * need no more threads than there are loops. Serves the same files and the same 404 as Worker, large files are
+ * sent with non-blocking FileChannel.transferTo as the socket accepts them. Every connection serves one request
+ * and is closed. Requests never wait for an in-flight slot of the AdmissionControl on an event loop, without a
+ * free one they get 503 at once, nor for a file read slot: without one a small file is sent from disk like a large
+ * one. A connection that misses its ConnectionDeadline is handed back to its event loop and closed there.</p>
+ *
+ * @author agent
+ */
+
+public class NioHTTPServer {
+    private static final Logger logger = Logger.getLogger(NioHTTPServer.class.getName());
+
+    private final int port;
+    private final String directory;
+    private final int loops;
+    private final AdmissionControl admission;
+
+    public NioHTTPServer(final int port, final String directory, final int loops) {
+        this(port, directory, loops, AdmissionControl.of());
+    }
+
+    NioHTTPServer(final int port, final String directory, final int loops, final AdmissionControl admission) {
+        this.port = port;
+        this.directory = directory;
+        this.loops = Math.max(loops, 1);
+        this.admission = admission;
+    }
+
+    void start() {
+        FileCache files = FileCache.of(this.directory);
+        EventLoop[] eventLoops = new EventLoop[loops];
+        try (final ServerSocketChannel server = ServerSocketChannel.open();
+             final TimerWheel timeouts = ConnectionDeadline.newWheel("http-timeouts")) {
+            server.bind(new InetSocketAddress(this.port), 1024);
+            for (int i = 0; i < loops; i++) {
+                eventLoops[i] = new EventLoop(files, timeouts);
+                Thread thread = new Thread(eventLoops[i], "http-event-loop-" + i);
+                thread.setDaemon(true);
+                thread.start();
+            }
+            LongAdder connections = MetricsEndpoint.connections("nio");
+            int next = 0;
+            while (true) {
+                SocketChannel channel = HTTPServer.accept(server);
+                if (channel == null) continue;
+                connections.increment();
+                if (!admission.tryConnect()) {
+                    AdmissionControl.refuse(channel);
+                    continue;
+                }
+                eventLoops[next].register(channel);
+                next = (next + 1) % loops;
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "HTTP server stopped " + e.getMessage(), e);
+        }
+    }
+
+    private class EventLoop implements Runnable {
+        private final Selector selector;
+        private final FileCache files;
+        private final TimerWheel timeouts;
+        private final Queue<SocketChannel> registrations = new ConcurrentLinkedQueue<>();
+        private final Queue<SelectionKey> expirations = new ConcurrentLinkedQueue<>();
+
+        private EventLoop(final FileCache files, final TimerWheel timeouts) throws IOException {
+            this.selector = Selector.open();
+            this.files = files;
+            this.timeouts = timeouts;
+        }
+
+        private void register(final SocketChannel channel) {
+            registrations.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    selector.select();
+                    SocketChannel accepted;
+                    while ((accepted = registrations.poll()) != null) {
+                        try {
+                            accepted.configureBlocking(false);
+                            Connection connection = new Connection();
+                            SelectionKey key = accepted.register(selector, SelectionKey.OP_READ, connection);
+                            connection.deadline = new ConnectionDeadline(timeouts, () -> expire(key));
+                            connection.deadline.arm(ConnectionDeadline.Phase.IDLE);
+                        } catch (IOException e) {
+                            close(accepted);
+                        }
+                    }
+                    SelectionKey expired;
+                    while ((expired = expirations.poll()) != null) {
+                        if (expired.isValid()) abort(expired);
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid()) continue;
+                        try {
+                            if (key.isReadable()) read(key);
+                            else if (key.isWritable()) write(key);
+                        } catch (IOException e) {
+                            abort(key);
+                        } catch (CancelledKeyException e) {
+                            if (key.channel().isOpen()) abort(key);
+                        }
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                logger.log(Level.SEVERE, "HTTP event loop stopped " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Runs on the timer wheel thread, the event loop closes the connection
+         */
+        private void expire(final SelectionKey key) {
+            expirations.add(key);
+            selector.wakeup();
+        }
+
+        private void abort(final SelectionKey key) {
+            Connection connection = (Connection) key.attachment();
+            key.cancel();
+            connection.deadline.disarm();
+            connection.closeResponse();
+            release(connection);
+            close((SocketChannel) key.channel());
+        }
+
+        private void read(final SelectionKey key) throws IOException {
+            SocketChannel channel = (SocketChannel) key.channel();
+            Connection connection = (Connection) key.attachment();
+            int read = channel.read(connection.buffer);
+            int headLength = connection.request.parse(connection.buffer.array(), 0, connection.buffer.position());
+            if (headLength == HttpRequest.INCOMPLETE && read >= 0 && connection.buffer.hasRemaining()) {
+                if (read > 0 && connection.deadline.phase() == ConnectionDeadline.Phase.IDLE) {
+                    connection.deadline.arm(ConnectionDeadline.Phase.HEADER);
+                }
+                return;
+            }
+            if (headLength == HttpRequest.INCOMPLETE && read < 0) {
+                key.cancel();
+                connection.deadline.disarm();
+                close(channel);
+                return;
+            }
+            connection.deadline.arm(ConnectionDeadline.Phase.WRITE);
+            connection.started = System.nanoTime();
+            connection.time = MetricsEndpoint.STATIC_TIME;
+            if (headLength <= 0 || connection.request.getContentLength() == HttpRequest.MALFORMED) {
+                MetricsEndpoint.BAD_REQUESTS.increment();
+                connection.response = StaticFiles.error(400, "Bad Request", "", false);
+            } else if (RestApi.handles(connection.request)) {
+                connection.response = StaticFiles.error(501, "Not Implemented", "", false);
+            } else if (MetricsEndpoint.handles(connection.request)) {
+                connection.time = MetricsEndpoint.METRICS_TIME;
+                connection.response = MetricsEndpoint.respond(connection.request, false);
+            } else {
+                long wait = admission.rateLimit(channel.socket().getInetAddress());
+                if (wait > 0) {
+                    connection.response = AdmissionControl.tooManyRequests(wait);
+                } else if (!admission.acquire(false)) {
+                    connection.response = AdmissionControl.busy();
+                } else {
+                    connection.admitted = true;
+                    connection.response = StaticFiles.respond(connection.request, files, false, false);
+                }
+            }
+            key.interestOps(SelectionKey.OP_WRITE);
+            write(key);
+        }
+
+        private void write(final SelectionKey key) throws IOException {
+            SocketChannel channel = (SocketChannel) key.channel();
+            Connection connection = (Connection) key.attachment();
+            if (!connection.response.write(channel)) {
+                connection.deadline.progress();
+                return;
+            }
+            connection.time.recordSince(connection.started);
+            connection.deadline.disarm();
+            release(connection);
+            key.cancel();
+            close(channel);
+        }
+
+        /**
+         * Gives back the in-flight slot of an admitted request
+         */
+        private void release(final Connection connection) {
+            if (!connection.admitted) return;
+            connection.admitted = false;
+            admission.release();
+        }
+
+        /**
+         * Closes a connection admitted by the accepting thread
+         */
+        private void close(final SocketChannel channel) {
+            admission.disconnect();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                /* Already broken */
+            }
+        }
+    }
+
+    private static class Connection {
+        private final ByteBuffer buffer = ByteBuffer.allocate(HttpRequest.MAX_HEAD);
+        private final HttpRequest request = new HttpRequest();
+        private ConnectionDeadline deadline;
+        private Response response;
+        private LatencyHistogram time;
+        private long started;
+        private boolean admitted;
+
+        private void closeResponse() {
+            if (response != null) response.close();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package labs.pm.utils.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One response ready to be written to a socket
+ * FileName: Response.java
+ * Date/time: 18 октябрь 2026 in 19:24
+ * <p>A sequence of buffers, any of them may be followed by a region of a file that is sent with
+ * FileChannel.transferTo. Buffers in a row go out with one gathering write. write() works on blocking and
+ * non-blocking channels and continues where the previous call stopped. A file region goes out in parts of at most
+ * TRANSFER_CHUNK bytes, so a blocking write returns now and then and its caller sees the progress.</p>
+ *
+ * @author agent
+ */
+
+final class Response {
+    private static final long TRANSFER_CHUNK = 256 * 1024;
+
+    private final ByteBuffer[] buffers;
+    private final long[] regions;
+    private final Path path;
+    private FileChannel file;
+    private int index;
+
+    private Response(final ByteBuffer[] buffers, final long[] regions, final Path path) {
+        this.buffers = buffers;
+        this.regions = regions;
+        this.path = path;
+    }
+
+    /**
+     * @param buffers ByteBuffer[] - complete response, the buffers are consumed by writing
+     */
+    static Response of(final ByteBuffer... buffers) {
+        return new Response(buffers, new long[buffers.length * 2], null);
+    }
+
+    /**
+     * Writes as much as the channel accepts
+     *
+     * @return true once the whole response is written
+     */
+    boolean write(final SocketChannel channel) throws IOException {
+        while (index < buffers.length) {
+            int last = index;
+            while (last < buffers.length - 1 && regions[last * 2 + 1] == 0) last++;
+            channel.write(buffers, index, last - index + 1);
+            for (; index < last; index++) {
+                if (buffers[index].hasRemaining()) return false;
+            }
+            if (buffers[index].hasRemaining()) return false;
+            if (regions[index * 2 + 1] > 0 && !transfer(channel, index * 2)) return false;
+            index++;
+        }
+        close();
+        return true;
+    }
+
+    void close() {
+        if (file == null) return;
+        try {
+            file.close();
+        } catch (IOException ignored) {
+            /* Read only */
+        }
+        file = null;
+    }
+
+    private boolean transfer(final SocketChannel channel, final int region) throws IOException {
+        if (file == null) file = FileChannel.open(path);
+        long sent = file.transferTo(regions[region], Math.min(regions[region + 1], TRANSFER_CHUNK), channel);
+        regions[region] += sent;
+        regions[region + 1] -= sent;
+        if (sent == 0 && regions[region] >= file.size()) throw new IOException("File " + path + " shrank while it was sent");
+        return regions[region + 1] == 0;
+    }
+
+    /**
+     * Collects buffers and file regions in the order they are sent
+     */
+    static final class Builder {
+        private final Path path;
+        private final List<ByteBuffer> buffers = new ArrayList<>();
+        private final List<long[]> regions = new ArrayList<>();
+
+        /**
+         * @param path Path - file the regions are read from, null if there are none
+         */
+        Builder(final Path path) {
+            this.path = path;
+        }
+
+        Builder add(final ByteBuffer buffer) {
+            buffers.add(buffer);
+            regions.add(null);
+            return this;
+        }
+
+        Builder addRegion(final long position, final long count) {
+            if (buffers.isEmpty() || regions.get(regions.size() - 1) != null) add(ByteBuffer.allocate(0));
+            regions.set(regions.size() - 1, new long[]{position, count});
+            return this;
+        }
+
+        Response build() {
+            long[] flat = new long[buffers.size() * 2];
+            for (int i = 0; i < regions.size(); i++) {
+                if (regions.get(i) == null) continue;
+                flat[i * 2] = regions.get(i)[0];
+                flat[i * 2 + 1] = regions.get(i)[1];
+            }
+            return new Response(buffers.toArray(new ByteBuffer[0]), flat, path);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package labs.pm.utils.http;
+
+import labs.pm.data.CommodityManager;
+import labs.pm.data.Money;
+import labs.pm.data.PriceSummary;
+import labs.pm.data.Product;
+import labs.pm.data.ProductFilter;
+import labs.pm.data.ProductOrder;
+import labs.pm.data.ProductPage;
+import labs.pm.data.ProductQuery;
+import labs.pm.data.ProductType;
+import labs.pm.data.Rateable;
+import labs.pm.data.Review;
+import labs.pm.exceptions.CommodityManagerException;
+import labs.pm.utils.json.JsonReader;
+import labs.pm.utils.json.JsonWriter;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * JSON endpoints of the catalog
+ * FileName: RestApi.java
+ * Date/time: 18 октябрь 2026 in 19:30
+ * <p>Everything under /api/ is answered from CommodityManager instead of the served directory:</p>
+ * <li>GET /api/products?type=FOOD&amp;rating=3&amp;sort=price&amp;order=desc&amp;limit=20 - filtered and sorted
+ * listing, sort by id, name, price, discount, rating or best_before, at most MAX_LIMIT products from offset
+ * (default 0) with the total number of matches; min_price, max_price and discount (lowest rate in %) filter as
+ * well. Price, rating and best_before are read from the catalog indexes in order</li>
+ * <li>GET /api/products/summary?type=FOOD - count, total, min, max and average price of the same filters</li>
+ * <li>GET /api/products/{id} - product with its reviews</li>
+ * <li>GET /api/products/{id}/reviews - reviews of the product</li>
+ * <li>POST /api/products/{id}/reviews with {"rating": 1..5, "comment": "..."} - adds a review, 201 with the product</li>
+ * <li>GET /api/discounts?lang=en-UK - discounts per rating for one of the supported locales</li>
+ * <p>Responses are rendered by a JsonWriter the connection reuses, they stay valid until its next request.
+ * The catalog is only created when the first API request arrives.</p>
+ *
+ * @author agent
+ */
+
+final class RestApi {
+    static final String PREFIX = "/api/";
+    static final int MAX_BODY = 64 * 1024;
+    static final int MAX_LIMIT = 1000;
+    private static final int DEFAULT_LIMIT = 100;
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String NO_STORE = "Cache-Control: no-store\r\n";
+    private static final Map<String, Comparator<Product>> SORTERS = Map.of(
+            "id", Comparator.comparingInt(Product::getId),
+            "name", Comparator.comparing(Product::getName),
+            "price", ProductOrder.by(ProductOrder.Key.PRICE),
+            "discount", Comparator.comparing(Product::getDiscount),
+            "rating", ProductOrder.by(ProductOrder.Key.RATING),
+            "best_before", ProductOrder.by(ProductOrder.Key.BEST_BEFORE));
+
+    private final Supplier<CommodityManager> catalog;
+
+    /**
+     * @param catalog Supplier - CommodityManager::getInstance, called on every request
+     */
+    RestApi(final Supplier<CommodityManager> catalog) {
+        this.catalog = catalog;
+    }
+
+    static boolean handles(final HttpRequest request) {
+        return request.getTarget().startsWith(PREFIX);
+    }
+
+    /**
+     * @param body byte[] - request body, empty without one
+     * @param json JsonWriter - output of the connection, reset here
+     * @return Response - JSON document, an error as {"error": "..."}
+     */
+    Response handle(final HttpRequest request, final byte[] body, final JsonWriter json, final boolean keepAlive) {
+        String target = request.getTarget();
+        int query = target.indexOf('?');
+        String path = query < 0 ? target : target.substring(0, query);
+        String[] segments = path.substring(PREFIX.length()).split("/");
+        json.reset();
+        try {
+            Map<String, String> parameters = query < 0 ? Map.of() : parseQuery(target.substring(query + 1));
+            if (segments[0].equals("discounts") && segments.length == 1) {
+                if (!request.isMethod("GET")) return notAllowed("GET", json, keepAlive);
+                return discounts(parameters.getOrDefault("lang", "ru-RU"), json, keepAlive);
+            }
+            if (segments[0].equals("products")) {
+                if (segments.length == 1) {
+                    if (!request.isMethod("GET")) return notAllowed("GET", json, keepAlive);
+                    return products(parameters, json, keepAlive);
+                }
+                if (segments.length == 2 && segments[1].equals("summary")) {
+                    if (!request.isMethod("GET")) return notAllowed("GET", json, keepAlive);
+                    return summary(parameters, json, keepAlive);
+                }
+                int id = parseInt(segments[1], "product id");
+                if (segments.length == 2) {
+                    if (!request.isMethod("GET")) return notAllowed("GET", json, keepAlive);
+                    return product(id, json, keepAlive);
+                }
+                if (segments.length == 3 && segments[2].equals("reviews")) {
+                    if (request.isMethod("GET")) return reviews(id, json, keepAlive);
+                    if (request.isMethod("POST")) return review(id, body, json, keepAlive);
+                    return notAllowed("GET, POST", json, keepAlive);
+                }
+            }
+            return error(404, "Not Found", "No such endpoint " + path, json, keepAlive);
+        } catch (IllegalArgumentException e) {
+            return error(400, "Bad Request", e.getMessage(), json, keepAlive);
+        } catch (CommodityManagerException e) {
+            return error(404, "Not Found", e.getMessage(), json, keepAlive);
+        }
+    }
+
+    private Response products(final Map<String, String> parameters, final JsonWriter json, final boolean keepAlive) {
+        ProductFilter filter = parseFilter(parameters);
+        Comparator<Product> sorter = SORTERS.get(parameters.getOrDefault("sort", "id"));
+        if (sorter == null) throw new IllegalArgumentException("Unknown sort " + parameters.get("sort") + ", expected one of " + SORTERS.keySet());
+        String order = parameters.getOrDefault("order", "asc");
+        if (order.equals("desc")) sorter = sorter.reversed();
+        else if (!order.equals("asc")) throw new IllegalArgumentException("Unknown order " + order + ", expected asc or desc");
+        int limit = parameters.containsKey("limit") ? parseInt(parameters.get("limit"), "limit") : DEFAULT_LIMIT;
+        if (limit < 0 || limit > MAX_LIMIT) throw new IllegalArgumentException("Limit must be 0.." + MAX_LIMIT);
+        int offset = parameters.containsKey("offset") ? parseInt(parameters.get("offset"), "offset") : 0;
+        if (offset < 0) throw new IllegalArgumentException("Offset must not be negative");
+
+        ProductPage page = catalog.get().getProducts(ProductQuery.where(filter).orderBy(sorter).page(offset, limit));
+        json.beginObject().name("total").value(page.getTotal()).name("offset").value(page.getOffset())
+                .name("products").beginArray();
+        for (Product product : page.getProducts()) product.writeJSON(json);
+        json.endArray().endObject();
+        return ok(200, "OK", "", json, keepAlive);
+    }
+
+    private Response summary(final Map<String, String> parameters, final JsonWriter json, final boolean keepAlive) {
+        PriceSummary summary = catalog.get().getPriceSummary(parseFilter(parameters));
+        json.beginObject().name("count").value(summary.getCount());
+        writeMoney(json.name("total"), summary.getTotal());
+        writeMoney(json.name("min"), summary.getMin());
+        writeMoney(json.name("max"), summary.getMax());
+        writeMoney(json.name("average"), summary.getAverage());
+        json.endObject();
+        return ok(200, "OK", "", json, keepAlive);
+    }
+
+    private Response product(final int id, final JsonWriter json, final boolean keepAlive) throws CommodityManagerException {
+        CommodityManager cm = catalog.get();
+        Product product = cm.findProductById(id);
+        List<Review> reviews = cm.findProductReviews(id);
+        json.beginObject();
+        product.writeJSONMembers(json);
+        json.name("reviews").beginArray();
+        for (Review review : reviews) review.writeJSON(json);
+        json.endArray().endObject();
+        return ok(200, "OK", "", json, keepAlive);
+    }
+
+    private Response reviews(final int id, final JsonWriter json, final boolean keepAlive) throws CommodityManagerException {
+        json.beginArray();
+        for (Review review : catalog.get().findProductReviews(id)) review.writeJSON(json);
+        json.endArray();
+        return ok(200, "OK", "", json, keepAlive);
+    }
+
+    private Response review(final int id, final byte[] body, final JsonWriter json, final boolean keepAlive) {
+        if (!(JsonReader.parse(new String(body, StandardCharsets.UTF_8)) instanceof Map<?, ?> review)) {
+            throw new IllegalArgumentException("Review must be a JSON object");
+        }
+        if (!(review.get("rating") instanceof BigDecimal rating)) throw new IllegalArgumentException("Review rating must be a number");
+        int stars;
+        try {
+            stars = rating.intValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Review rating must be a whole number");
+        }
+        if (stars < 1 || stars > 5) throw new IllegalArgumentException("Review rating must be 1..5");
+        Object comment = review.containsKey("comment") ? review.get("comment") : "";
+        if (!(comment instanceof String)) throw new IllegalArgumentException("Review comment must be a string");
+        Product product = catalog.get().reviewProduct(id, Rateable.convert(stars), (String) comment);
+        if (product == null) return error(404, "Not Found", "No product with id " + id, json, keepAlive);
+        product.writeJSON(json);
+        return ok(201, "Created", "Location: " + PREFIX + "products/" + id + "\r\n", json, keepAlive);
+    }
+
+    private Response discounts(final String languageTag, final JsonWriter json, final boolean keepAlive) {
+        String tag = CommodityManager.getSupportedLocales().contains(languageTag) ? languageTag : "ru-RU";
+        json.beginObject().name("lang").value(tag).name("discounts").beginObject();
+        catalog.get().getDiscounts(tag).forEach((rating, discount) -> json.name(rating).value(discount));
+        json.endObject().endObject();
+        return ok(200, "OK", "", json, keepAlive);
+    }
+
+    private Response notAllowed(final String allow, final JsonWriter json, final boolean keepAlive) {
+        return error(405, "Method Not Allowed", "Allowed methods " + allow, json, keepAlive, "Allow: " + allow + "\r\n");
+    }
+
+    private static Response error(final int status, final String statusText, final String message,
+                                  final JsonWriter json, final boolean keepAlive) {
+        return error(status, statusText, message, json, keepAlive, "");
+    }
+
+    private static Response error(final int status, final String statusText, final String message,
+                                  final JsonWriter json, final boolean keepAlive, final String extra) {
+        json.reset().beginObject().name("error").value(message).endObject();
+        return ok(status, statusText, extra, json, keepAlive);
+    }
+
+    private static Response ok(final int status, final String statusText, final String extra,
+                               final JsonWriter json, final boolean keepAlive) {
+        return Response.of(ByteBuffer.wrap(StaticFiles.header(status, statusText, JSON, json.size(), NO_STORE + extra)),
+                StaticFiles.end(keepAlive), json.toByteBuffer());
+    }
+
+    private static Map<String, String> parseQuery(final String query) {
+        Map<String, String> parameters = new HashMap<>();
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) continue;
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            parameters.putIfAbsent(name, value);
+        }
+        return parameters;
+    }
+
+    private static int parseInt(final String text, final String what) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad " + what + " " + text);
+        }
+    }
+
+    private static ProductFilter parseFilter(final Map<String, String> parameters) {
+        ProductFilter filter = ProductFilter.all();
+        String type = parameters.get("type");
+        if (type != null) filter = filter.type(parseType(type));
+        String rating = parameters.get("rating");
+        if (rating != null) filter = filter.ratingAtLeast(parseInt(rating, "rating"));
+        String discount = parameters.get("discount");
+        if (discount != null) filter = filter.discountAtLeast(parseInt(discount, "discount"));
+        String minPrice = parameters.get("min_price");
+        String maxPrice = parameters.get("max_price");
+        if (minPrice != null || maxPrice != null) {
+            filter = filter.priceBetween(parseMoney(minPrice, "min_price"), parseMoney(maxPrice, "max_price"));
+        }
+        return filter;
+    }
+
+    private static Money parseMoney(final String text, final String what) {
+        if (text == null) return null;
+        try {
+            return Money.of(new BigDecimal(text));
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Bad " + what + " " + text);
+        }
+    }
+
+    private static void writeMoney(final JsonWriter json, final Money amount) {
+        json.value(amount.cents(), Money.SCALE);
+    }
+
+    private static ProductType parseType(final String type) {
+        try {
+            return ProductType.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown product type " + type + ", expected FOOD, DRINK or NONFOOD");
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package labs.pm.utils.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Static file rules shared by the server engines
+ * FileName: StaticFiles.java
+ * Date/time: 18 октябрь 2026 in 19:07
+ * <p>Content types, response headers and the limit of concurrent file reads, so the thread per connection
+ * Worker and the NIO event loop answer exactly the same way. Files are looked up through FileCache. Only the
+ * Worker threads wait for a file read slot, an event loop never blocks on it.</p>
+ *
+ * @author agent
+ */
+
+final class StaticFiles {
+
+    static final Map<String, String> CONTENT_TYPES = new HashMap<>() {{
+        put("bmp", "image/bmp");
+        put("png", "image/png");
+        put("jpg", "image/jpeg");
+        put("jpeg", "image/jpeg");
+        put("", "text/plain");
+        put("csv", "text/csv");
+        put("xml", "text/xml");
+        put("htm", "text/html");
+        put("html", "text/html");
+        put("txt", "text/plain");
+        put("text", "text/plain");
+        put("json", "application/json");
+    }};
+    static final String NOT_FOUND_MSG = "PAGE NOT FOUND...";
+    private static final ByteBuffer NOT_FOUND_HEADER = ByteBuffer.wrap(
+            header(404, "Not Found", CONTENT_TYPES.get("text"), NOT_FOUND_MSG.length(), "")).asReadOnlyBuffer();
+    private static final ByteBuffer NOT_FOUND_BODY = ByteBuffer.wrap(
+            NOT_FOUND_MSG.getBytes(StandardCharsets.US_ASCII)).asReadOnlyBuffer();
+    private static final ByteBuffer KEEP_ALIVE = ByteBuffer.wrap(
+            "Connection: keep-alive\r\n\r\n".getBytes(StandardCharsets.US_ASCII)).asReadOnlyBuffer();
+    private static final ByteBuffer CLOSE = ByteBuffer.wrap(
+            "Connection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII)).asReadOnlyBuffer();
+    /**
+     * Reads of served files in progress at once across all connections and engines, -Dpm.http.file.reads
+     */
+    private static final Semaphore FILE_READS = new Semaphore(Integer.getInteger("pm.http.file.reads", 64), true);
+
+    private StaticFiles() {
+    }
+
+    /**
+     * Reads the whole file
+     *
+     * @param wait boolean - wait while too many other reads are in progress, false on an event loop thread
+     * @return byte[] - file content, null if wait is false and no read slot is free
+     */
+    static byte[] read(final Path path, final boolean wait) throws IOException {
+        if (!wait) {
+            if (!FILE_READS.tryAcquire()) return null;
+        } else {
+            try {
+                FILE_READS.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting to read " + path);
+            }
+        }
+        try {
+            return Files.readAllBytes(path);
+        } finally {
+            FILE_READS.release();
+        }
+    }
+
+    static String contentType(final Path path) {
+        return CONTENT_TYPES.getOrDefault(getFileExtension(path), CONTENT_TYPES.get(""));
+    }
+
+    /**
+     * @return true for text, JSON and XML types, images are compressed already
+     */
+    static boolean isCompressible(final String contentType) {
+        return contentType.startsWith("text/") || contentType.equals("application/json") || contentType.endsWith("+xml");
+    }
+
+    /**
+     * Compressed bodies are cached per file version, so they are made once with the best compression
+     *
+     * @param encoding String - "gzip" or "deflate" (zlib format, RFC 9110)
+     */
+    static byte[] compress(final byte[] body, final String encoding) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 64);
+        if (encoding.equals("gzip")) {
+            try (GZIPOutputStream stream = new GZIPOutputStream(out) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+                stream.write(body);
+            }
+            return out.toByteArray();
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream stream = new DeflaterOutputStream(out, deflater)) {
+            stream.write(body);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Quality of a content coding in an Accept-Encoding header, RFC 9110 section 12.5.3
+     *
+     * @return float - q of the coding, else of "*", 0 if neither is listed or q is malformed
+     */
+    static float quality(final String acceptEncoding, final String coding) {
+        float wildcard = 0;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parameters = element.split(";");
+            String name = parameters[0].trim();
+            boolean exact = name.equalsIgnoreCase(coding);
+            if (!exact && !name.equals("*")) continue;
+            float q = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (!parameter.regionMatches(true, 0, "q=", 0, 2)) continue;
+                try {
+                    q = Float.parseFloat(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    q = 0;
+                }
+            }
+            if (exact) return q;
+            wildcard = q;
+        }
+        return wildcard;
+    }
+
+    static String getFileExtension(final Path path) {
+        String name = path.getFileName().toString();
+        int extensionStart = name.lastIndexOf('.');
+        return extensionStart == -1 ? "" : name.substring(extensionStart + 1);
+    }
+
+    /**
+     * Status line and header lines, the response continues with end() and the body
+     *
+     * @param extra String - further header lines, each terminated by CRLF
+     */
+    static byte[] header(final int statusCode, final String statusText, final String type, final long length, final String extra) {
+        return ("HTTP/1.1 " + statusCode + " " + statusText + "\r\n"
+                + "Content-Type: " + type + "\r\n"
+                + "Content-Length: " + length + "\r\n"
+                + extra).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @param validators String - ETag and Last-Modified header lines
+     */
+    static byte[] notModified(final String validators) {
+        return ("HTTP/1.1 304 Not Modified\r\n" + validators).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return ByteBuffer - Connection header and the empty line closing every header
+     */
+    static ByteBuffer end(final boolean keepAlive) {
+        return (keepAlive ? KEEP_ALIVE : CLOSE).duplicate();
+    }
+
+    /**
+     * Answers a GET or HEAD of a served file, the same way for every engine
+     *
+     * @param request HttpRequest - parsed head
+     * @param keepAlive boolean - the connection stays open after the response
+     * @param wait boolean - the thread may wait for a file read slot, see FileCache.lookup()
+     * @return Response - 200, 206, 304, 404, 405 or 416, a 200 or 304 in the encoding picked by
+     * FileCache.select()
+     */
+    static Response respond(final HttpRequest request, final FileCache files, final boolean keepAlive,
+                            final boolean wait) throws IOException {
+        boolean head = request.isMethod("HEAD");
+        if (!head && !request.isMethod("GET")) return error(405, "Method Not Allowed", "Allow: GET, HEAD\r\n", keepAlive);
+        FileCache.Entry entry = files.lookup(request.getTarget(), wait);
+        if (entry == null) return notFound(keepAlive, head);
+        String range = request.header("range");
+        if (range == null) entry = files.select(entry, request.header("accept-encoding"));
+        if (entry.isNotModified(request)) return entry.notModified(keepAlive);
+        long[] ranges = range != null && entry.isRangeCurrent(request.header("if-range"))
+                ? ByteRanges.parse(range, entry.getLength())
+                : null;
+        if (ranges == null) return entry.full(keepAlive, head);
+        return ranges.length == 0 ? entry.unsatisfiable(keepAlive) : entry.partial(ranges, keepAlive, head);
+    }
+
+    static Response notFound(final boolean keepAlive, final boolean head) {
+        return head
+                ? Response.of(NOT_FOUND_HEADER.duplicate(), end(keepAlive))
+                : Response.of(NOT_FOUND_HEADER.duplicate(), end(keepAlive), NOT_FOUND_BODY.duplicate());
+    }
+
+    /**
+     * @param extra String - further header lines, each terminated by CRLF
+     * @return Response - status text as a plain text body
+     */
+    static Response error(final int statusCode, final String statusText, final String extra, final boolean keepAlive) {
+        return Response.of(ByteBuffer.wrap(header(statusCode, statusText, CONTENT_TYPES.get("text"), statusText.length(), extra)),
+                end(keepAlive), ByteBuffer.wrap(statusText.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
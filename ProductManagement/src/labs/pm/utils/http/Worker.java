@@ -2,95 +2,215 @@ package labs.pm.utils.http;
 
 import labs.pm.data.CommodityManager;
 import labs.pm.exceptions.CommodityManagerException;
+import labs.pm.utils.concurrent.TimerWheel;
+import labs.pm.utils.json.JsonWriter;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
-import java.io.PrintStream;
-import java.net.Socket;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Scanner;
+import java.net.InetAddress;
+import java.nio.channels.SocketChannel;
 
 /**
  * Incoming request processor
  * FileName: Worker.java
  * Date/time: 01 май 2021 in 21:21
+ * <p>Serves one connection, HTTPServer runs every Worker on its own platform or virtual thread. Small files
+ * come from the FileCache, large ones go from disk straight to the socket with FileChannel.transferTo, see
+ * StaticFiles.respond() for the requests understood. Requests under /api/ are answered by the RestApi, their
+ * bodies of up to RestApi.MAX_BODY bytes are read in full, chunked bodies are not supported. An invalid or
+ * conflicting Content-Length, or one sent with Transfer-Encoding, gets 400 and closes the connection, so the end
+ * of the body is never guessed. GET /metrics is
+ * answered by the MetricsEndpoint. Every other request passes the AdmissionControl first: a client over its rate
+ * gets 429, a request that finds no in-flight slot in time gets 503, both close the connection.
+ * The connection stays open for further requests, pipelined ones included, until the client closes it or asks
+ * to, has sent -Dpm.http.keepalive.max requests (default 1000) or misses a ConnectionDeadline: idle between
+ * requests, a head or a body that takes too long, a response the client does not read. The deadline closes the
+ * channel, which ends a read or write blocked on it.</p>
  *
  * @author Andrei G. Pastushenko
  */
 
-public class Worker extends Thread {
+public class Worker implements Runnable {
+    private static final int MAX_REQUESTS = Integer.getInteger("pm.http.keepalive.max", 1000);
 
-    private static final Map<String, String> CONTENT_TYPES = new HashMap<>() {{
-        put("bmp", "image/bmp");
-        put("png", "image/png");
-        put("jpg", "image/jpeg");
-        put("jpeg", "image/jpeg");
-        put("", "text/plain");
-        put("csv", "text/csv");
-        put("xml", "text/xml");
-        put("htm", "text/html");
-        put("html", "text/html");
-        put("txt", "text/plain");
-        put("text", "text/plain");
-        put("json", "application/json");
-    }};
-    private static final String NOT_FOUND_MSG = "PAGE NOT FOUND...";
+    private final SocketChannel channel;
+    private final FileCache files;
+    private final RestApi api;
+    private final AdmissionControl admission;
+    private final ConnectionDeadline deadline;
+    private final byte[] buffer = new byte[HttpRequest.MAX_HEAD];
+    private final HttpRequest request = new HttpRequest();
+    private int start;
+    private int end;
+    private JsonWriter json;
 
-    private final Socket socket;
-    private final String directory;
-
-    Worker(final Socket socket, final String directory) {
-        this.socket = socket;
-        this.directory = directory;
+    /**
+     * @param admission AdmissionControl - admitted the connection, the worker calls disconnect() when it ends
+     * @param timeouts TimerWheel - keeps the ConnectionDeadline of the connection
+     */
+    Worker(final SocketChannel channel, final FileCache files, final RestApi api, final AdmissionControl admission,
+           final TimerWheel timeouts) {
+        this.channel = channel;
+        this.files = files;
+        this.api = api;
+        this.admission = admission;
+        this.deadline = new ConnectionDeadline(timeouts, this::expire);
     }
 
     @Override
     public void run() {
-        try (final InputStream input = socket.getInputStream(); final OutputStream output = socket.getOutputStream()) {
-            String url = this.getRequestUrl(input);
-            Path filePath = Path.of(this.directory + (url.length() == 1 ? "index.html" : url));
-            if (Files.exists(filePath) && !Files.isDirectory(filePath)) response(filePath, output);
-            else notFound(output);
+        try (channel) {
+            channel.socket().setTcpNoDelay(true);
+            InputStream input = channel.socket().getInputStream();
+            InetAddress client = channel.socket().getInetAddress();
+            for (int served = 1; ; served++) {
+                int headLength = nextHead(input);
+                if (headLength == HttpRequest.INCOMPLETE) return;
+                if (headLength == HttpRequest.MALFORMED) {
+                    MetricsEndpoint.BAD_REQUESTS.increment();
+                    send(StaticFiles.error(400, "Bad Request", "", false));
+                    return;
+                }
+                deadline.disarm();
+                long started = System.nanoTime();
+                start += headLength;
+                if (request.getContentLength() == HttpRequest.MALFORMED) {
+                    MetricsEndpoint.BAD_REQUESTS.increment();
+                    send(StaticFiles.error(400, "Bad Request", "", false));
+                    return;
+                }
+                if (request.header("transfer-encoding") != null) {
+                    MetricsEndpoint.BAD_REQUESTS.increment();
+                    send(StaticFiles.error(501, "Not Implemented", "", false));
+                    return;
+                }
+                boolean keepAlive = request.isKeepAlive() && served < MAX_REQUESTS;
+                if (MetricsEndpoint.handles(request)) {
+                    skipBody(input, request.getContentLength());
+                    send(MetricsEndpoint.respond(request, keepAlive));
+                    MetricsEndpoint.METRICS_TIME.recordSince(started);
+                    if (!keepAlive) return;
+                    continue;
+                }
+                long wait = admission.rateLimit(client);
+                if (wait > 0) {
+                    send(AdmissionControl.tooManyRequests(wait));
+                    return;
+                }
+                if (!admission.acquire(true)) {
+                    send(AdmissionControl.busy());
+                    return;
+                }
+                try {
+                    if (!serve(input, keepAlive, started)) return;
+                } finally {
+                    admission.release();
+                }
+                if (!keepAlive) return;
+            }
+        } catch (EOFException closed) {
+            /* Client closed the connection inside a request body */
         } catch (IOException FuckedUp) {
-            FuckedUp.printStackTrace();
+            if (!deadline.isExpired()) FuckedUp.printStackTrace();
+        } finally {
+            deadline.disarm();
+            admission.disconnect();
         }
     }
 
-    private String getRequestUrl(final InputStream input) {
-        return new Scanner(input)
-                .useDelimiter("\r\n")
-                .next()
-                .trim()
-                .split(" ")[1];
+    /**
+     * Runs on the timer wheel thread, a blocked read or write of the worker fails with an IOException
+     */
+    private void expire() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            /* Already broken */
+        }
+    }
 
+    /**
+     * Writes the whole response, the WRITE deadline is armed again after every part the client accepted
+     */
+    private void send(final Response response) throws IOException {
+        try {
+            deadline.arm(ConnectionDeadline.Phase.WRITE);
+            while (!response.write(channel)) deadline.progress();
+        } finally {
+            response.close();
+        }
+        deadline.disarm();
     }
 
-    private void response(final Path path, final OutputStream output) throws IOException {
-        String type = this.getFileExtension(path);
-        byte[] fileBytes = Files.readAllBytes(path);
-        this.sendHeader(output, 200, "OK", type, fileBytes.length);
-        output.write(fileBytes);
+    /**
+     * Answers an admitted request from the RestApi or the served files
+     *
+     * @param started long - System.nanoTime() when the head was parsed
+     * @return false if the request was refused and the connection has to be closed
+     */
+    private boolean serve(final InputStream input, final boolean keepAlive, final long started) throws IOException {
+        long contentLength = request.getContentLength();
+        if (RestApi.handles(request)) {
+            if (contentLength > RestApi.MAX_BODY) {
+                MetricsEndpoint.BAD_REQUESTS.increment();
+                send(StaticFiles.error(413, "Content Too Large", "", false));
+                return false;
+            }
+            if (json == null) json = new JsonWriter(4096);
+            send(api.handle(request, readBody(input, (int) contentLength), json, keepAlive));
+            MetricsEndpoint.API_TIME.recordSince(started);
+            return true;
+        }
+        skipBody(input, contentLength);
+        send(StaticFiles.respond(request, files, keepAlive, true));
+        MetricsEndpoint.STATIC_TIME.recordSince(started);
+        return true;
     }
 
-    private String getFileExtension(final Path path) {
-        String name = path.getFileName().toString();
-        int extensionStart = name.lastIndexOf('.');
-        return extensionStart == -1 ? "" : name.substring(extensionStart + 1);
+    /**
+     * Parses the next head into request. Bytes after the head stay in the buffer, they are the start of the next
+     * pipelined request
+     *
+     * @return int - length of the head at start, INCOMPLETE if the client closed, MALFORMED if the head is
+     * invalid or does not fit into the buffer
+     */
+    private int nextHead(final InputStream input) throws IOException {
+        deadline.arm(end > start ? ConnectionDeadline.Phase.HEADER : ConnectionDeadline.Phase.IDLE);
+        while (true) {
+            int headLength = request.parse(buffer, start, end);
+            if (headLength != HttpRequest.INCOMPLETE) return headLength;
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                start = 0;
+            }
+            if (end == buffer.length) return HttpRequest.MALFORMED;
+            int read = input.read(buffer, end, buffer.length - end);
+            if (read < 0) return HttpRequest.INCOMPLETE;
+            if (read > 0 && deadline.phase() == ConnectionDeadline.Phase.IDLE) deadline.arm(ConnectionDeadline.Phase.HEADER);
+            end += read;
+        }
     }
 
-    private void sendHeader(final OutputStream output, final int statusCode, final String statusText, final String type, final int length) {
-        PrintStream printStream = new PrintStream(output);
-        printStream.printf("HTTP/1.1 %s %s%n", statusCode, statusText);
-        printStream.printf("Content-Type: %s%n", type);
-        printStream.printf("Content-Length: %s%n%n", length);
+    private byte[] readBody(final InputStream input, final int length) throws IOException {
+        byte[] body = new byte[length];
+        int buffered = Math.min(length, end - start);
+        System.arraycopy(buffer, start, body, 0, buffered);
+        start += buffered;
+        if (length == buffered) return body;
+        deadline.arm(ConnectionDeadline.Phase.BODY);
+        if (input.readNBytes(body, buffered, length - buffered) < length - buffered) throw new EOFException();
+        deadline.disarm();
+        return body;
     }
 
-    private void notFound(final OutputStream output) throws IOException {
-        this.sendHeader(output, 404, "Not Found", CONTENT_TYPES.get("text"), NOT_FOUND_MSG.length());
-        output.write(NOT_FOUND_MSG.getBytes());
+    private void skipBody(final InputStream input, final long length) throws IOException {
+        int buffered = (int) Math.min(length, end - start);
+        start += buffered;
+        if (length == buffered) return;
+        deadline.arm(ConnectionDeadline.Phase.BODY);
+        input.skipNBytes(length - buffered);
+        deadline.disarm();
     }
 }
@@ -0,0 +1,158 @@
+package labs.pm.utils.json;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parser of small JSON documents such as request bodies
+ * FileName: JsonReader.java
+ * Date/time: 18 октябрь 2026 in 19:30
+ * <p>Objects become Map, arrays List, numbers BigDecimal, the rest String, Boolean or null.</p>
+ *
+ * @author agent
+ */
+
+public final class JsonReader {
+    private static final int MAX_DEPTH = 32;
+
+    private final String text;
+    private int position;
+
+    private JsonReader(final String text) {
+        this.text = text;
+    }
+
+    /**
+     * @param text String - complete JSON document
+     * @return Object - parsed value
+     * @throws IllegalArgumentException if the text is not a single valid JSON value
+     */
+    public static Object parse(final String text) {
+        JsonReader reader = new JsonReader(text);
+        Object value = reader.value(0);
+        reader.skipWhitespace();
+        if (reader.position != text.length()) throw reader.error("Unexpected text after the value");
+        return value;
+    }
+
+    private Object value(final int depth) {
+        if (depth > MAX_DEPTH) throw error("Nested too deep");
+        skipWhitespace();
+        if (position == text.length()) throw error("Value expected");
+        char c = text.charAt(position);
+        return switch (c) {
+            case '{' -> object(depth);
+            case '[' -> array(depth);
+            case '"' -> string();
+            case 't' -> literal("true", Boolean.TRUE);
+            case 'f' -> literal("false", Boolean.FALSE);
+            case 'n' -> literal("null", null);
+            default -> number();
+        };
+    }
+
+    private Map<String, Object> object(final int depth) {
+        Map<String, Object> members = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if (peek('}')) return members;
+        while (true) {
+            skipWhitespace();
+            if (position == text.length() || text.charAt(position) != '"') throw error("Member name expected");
+            String name = string();
+            skipWhitespace();
+            expect(':');
+            members.put(name, value(depth + 1));
+            skipWhitespace();
+            if (peek('}')) return members;
+            expect(',');
+        }
+    }
+
+    private List<Object> array(final int depth) {
+        List<Object> elements = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (peek(']')) return elements;
+        while (true) {
+            elements.add(value(depth + 1));
+            skipWhitespace();
+            if (peek(']')) return elements;
+            expect(',');
+        }
+    }
+
+    private String string() {
+        StringBuilder out = new StringBuilder();
+        position++;
+        while (position < text.length()) {
+            char c = text.charAt(position++);
+            if (c == '"') return out.toString();
+            if (c < 0x20) throw error("Control character in a string");
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            if (position == text.length()) break;
+            char escaped = text.charAt(position++);
+            switch (escaped) {
+                case '"', '\\', '/' -> out.append(escaped);
+                case 'b' -> out.append('\b');
+                case 'f' -> out.append('\f');
+                case 'n' -> out.append('\n');
+                case 'r' -> out.append('\r');
+                case 't' -> out.append('\t');
+                case 'u' -> {
+                    if (position + 4 > text.length()) throw error("Bad unicode escape");
+                    try {
+                        out.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Bad unicode escape");
+                    }
+                    position += 4;
+                }
+                default -> throw error("Bad escape");
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private BigDecimal number() {
+        int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) position++;
+        try {
+            return new BigDecimal(text.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("Bad number");
+        }
+    }
+
+    private Object literal(final String literal, final Object value) {
+        if (!text.startsWith(literal, position)) throw error("Unknown literal");
+        position += literal.length();
+        return value;
+    }
+
+    private boolean peek(final char c) {
+        if (position < text.length() && text.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(final char c) {
+        if (!peek(c)) throw error("'" + c + "' expected");
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && " \t\r\n".indexOf(text.charAt(position)) >= 0) position++;
+    }
+
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException(message + " at " + position);
+    }
+}
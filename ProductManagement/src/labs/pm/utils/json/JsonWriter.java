@@ -0,0 +1,251 @@
+package labs.pm.utils.json;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming JSON output
+ * FileName: JsonWriter.java
+ * Date/time: 18 октябрь 2026 in 19:30
+ * <p>Encodes names and values as UTF-8 straight into its own byte array, commas are placed automatically.
+ * The caller is responsible for the nesting: every begin has its end and inside an object every value
+ * follows a name. A server keeps one writer per connection and calls reset() before every response.</p>
+ *
+ * @author agent
+ */
+
+public final class JsonWriter {
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * reset() drops a buffer that grew beyond this, so one large listing does not pin memory for good
+     */
+    private static final int MAX_RETAINED = 1 << 20;
+
+    private final int initialCapacity;
+    private byte[] bytes;
+    private int size;
+    private boolean comma;
+
+    public JsonWriter(final int capacity) {
+        this.initialCapacity = Math.max(capacity, 16);
+        this.bytes = new byte[initialCapacity];
+    }
+
+    public JsonWriter reset() {
+        if (bytes.length > MAX_RETAINED) bytes = new byte[initialCapacity];
+        size = 0;
+        comma = false;
+        return this;
+    }
+
+    public JsonWriter beginObject() {
+        separate();
+        append((byte) '{');
+        comma = false;
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        append((byte) '}');
+        comma = true;
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        separate();
+        append((byte) '[');
+        comma = false;
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        append((byte) ']');
+        comma = true;
+        return this;
+    }
+
+    /**
+     * @param name String - member name, the next call writes its value
+     */
+    public JsonWriter name(final String name) {
+        separate();
+        string(name);
+        append((byte) ':');
+        comma = false;
+        return this;
+    }
+
+    public JsonWriter value(final String value) {
+        if (value == null) return nullValue();
+        separate();
+        string(value);
+        comma = true;
+        return this;
+    }
+
+    public JsonWriter value(final long value) {
+        separate();
+        if (value == Long.MIN_VALUE) {
+            append(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+        } else {
+            long rest = value;
+            if (rest < 0) {
+                append((byte) '-');
+                rest = -rest;
+            }
+            int digits = 1;
+            for (long limit = 10; digits < 19 && rest >= limit; limit *= 10) digits++;
+            ensure(digits);
+            for (int i = size + digits - 1; i >= size; i--) {
+                bytes[i] = (byte) ('0' + rest % 10);
+                rest /= 10;
+            }
+            size += digits;
+        }
+        comma = true;
+        return this;
+    }
+
+    /**
+     * Writes a fixed-point number without creating a BigDecimal
+     *
+     * @param unscaled long - the digits, e.g. 1250 for 12.50 with scale 2
+     * @param scale int - digits after the decimal point, 0 to 18
+     */
+    public JsonWriter value(final long unscaled, final int scale) {
+        if (scale == 0) return value(unscaled);
+        if (scale < 0 || scale > 18 || unscaled == Long.MIN_VALUE) return value(BigDecimal.valueOf(unscaled, scale));
+        long divisor = 1;
+        for (int i = 0; i < scale; i++) divisor *= 10;
+        long rest = Math.abs(unscaled) % divisor;
+        if (unscaled < 0 && unscaled > -divisor) {
+            separate();
+            append((byte) '-');
+            append((byte) '0');
+            comma = true;
+        } else value(unscaled / divisor);
+        append((byte) '.');
+        ensure(scale);
+        for (int i = size + scale - 1; i >= size; i--) {
+            bytes[i] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        }
+        size += scale;
+        return this;
+    }
+
+    public JsonWriter value(final BigDecimal value) {
+        if (value == null) return nullValue();
+        separate();
+        append(value.toPlainString().getBytes(StandardCharsets.US_ASCII));
+        comma = true;
+        return this;
+    }
+
+    public JsonWriter value(final boolean value) {
+        separate();
+        append(value ? TRUE : FALSE);
+        comma = true;
+        return this;
+    }
+
+    public JsonWriter nullValue() {
+        separate();
+        append(NULL);
+        comma = true;
+        return this;
+    }
+
+    /**
+     * @return int - number of bytes written since reset()
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return ByteBuffer - view of the written bytes, valid until the next reset()
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(bytes, 0, size);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private void separate() {
+        if (comma) append((byte) ',');
+    }
+
+    private void string(final String text) {
+        ensure(text.length() + 2);
+        bytes[size++] = '"';
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                append((byte) c);
+            } else if (c == '"' || c == '\\') {
+                append((byte) '\\');
+                append((byte) c);
+            } else if (c < 0x20) {
+                escapeControl(c);
+            } else if (c < 0x800) {
+                append((byte) (0xC0 | c >> 6));
+                append((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                append((byte) (0xF0 | codePoint >> 18));
+                append((byte) (0x80 | codePoint >> 12 & 0x3F));
+                append((byte) (0x80 | codePoint >> 6 & 0x3F));
+                append((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                append((byte) '?');
+            } else {
+                append((byte) (0xE0 | c >> 12));
+                append((byte) (0x80 | c >> 6 & 0x3F));
+                append((byte) (0x80 | c & 0x3F));
+            }
+        }
+        append((byte) '"');
+    }
+
+    private void escapeControl(final char c) {
+        append((byte) '\\');
+        switch (c) {
+            case '\n' -> append((byte) 'n');
+            case '\r' -> append((byte) 'r');
+            case '\t' -> append((byte) 't');
+            case '\b' -> append((byte) 'b');
+            case '\f' -> append((byte) 'f');
+            default -> {
+                append((byte) 'u');
+                append((byte) '0');
+                append((byte) '0');
+                append(HEX[c >> 4]);
+                append(HEX[c & 0xF]);
+            }
+        }
+    }
+
+    private void append(final byte b) {
+        if (size == bytes.length) ensure(1);
+        bytes[size++] = b;
+    }
+
+    private void append(final byte[] data) {
+        ensure(data.length);
+        System.arraycopy(data, 0, bytes, size, data.length);
+        size += data.length;
+    }
+
+    private void ensure(final int more) {
+        if (size + more > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + more));
+    }
+}
@@ -0,0 +1,106 @@
+package labs.pm.utils.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram
+ * FileName: LatencyHistogram.java
+ * Date/time: 18 октябрь 2026 in 19:40
+ * <p>Log-linear buckets in the way of HdrHistogram: values below 64 ns have a bucket each, every further power
+ * of two is split into 32 buckets, so any quantile is off by at most 1/32 (about 3%). Values from 1 ns to about
+ * 2.4 hours fit in 1248 buckets, larger ones land in the last bucket. record() is one atomic increment plus a
+ * LongAdder, no locks and no allocation; readers see every recorded value without stopping the writers, the
+ * count of a read may be a few values ahead of the quantiles.</p>
+ *
+ * @author agent
+ */
+
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 37;
+    private static final int BUCKETS = SUB_BUCKETS * (MAX_MAGNITUDE + 2);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param nanos long - measured time, negative values count as 0
+     */
+    public void record(final long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.getAndIncrement(index(value));
+        sum.add(value);
+        long seen = max.get();
+        while (value > seen && !max.compareAndSet(seen, value)) seen = max.get();
+    }
+
+    /**
+     * Records the time passed since start
+     *
+     * @param start long - System.nanoTime() at the start of the measured operation
+     */
+    public void recordSince(final long start) {
+        record(System.nanoTime() - start);
+    }
+
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) count += counts.get(i);
+        return count;
+    }
+
+    /**
+     * @return long - total of all recorded values in nanoseconds
+     */
+    public long sum() {
+        return sum.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * @param quantiles double[] - ascending quantiles, 0.5 for the median
+     * @return long[] - highest value in nanoseconds of the bucket holding each quantile, 0 for an empty histogram
+     */
+    public long[] quantiles(final double... quantiles) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += snapshot[i] = counts.get(i);
+        long[] values = new long[quantiles.length];
+        if (total == 0) return values;
+        long seen = 0;
+        int bucket = -1;
+        for (int q = 0; q < quantiles.length; q++) {
+            long rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+            while (seen < rank && bucket < BUCKETS - 1) seen += snapshot[++bucket];
+            values[q] = Math.min(highestValue(bucket), max.get());
+        }
+        return values;
+    }
+
+    static int index(final long value) {
+        int magnitude = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1);
+        if (magnitude > MAX_MAGNITUDE) return BUCKETS - 1;
+        return (magnitude << SUB_BUCKET_BITS) + (int) (value >>> magnitude);
+    }
+
+    static long highestValue(final int index) {
+        int magnitude = index < 2 * SUB_BUCKETS ? 0 : (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = index - ((long) magnitude << SUB_BUCKET_BITS);
+        return ((subBucket + 1) << magnitude) - 1;
+    }
+
+    @Override
+    public String toString() {
+        long[] values = quantiles(0.5, 0.99);
+        return "count=" + count() + ", p50=" + TimeUnit.NANOSECONDS.toMicros(values[0]) + "us, p99="
+                + TimeUnit.NANOSECONDS.toMicros(values[1]) + "us, max=" + TimeUnit.NANOSECONDS.toMicros(max()) + "us";
+    }
+}
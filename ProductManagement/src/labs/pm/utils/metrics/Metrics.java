@@ -0,0 +1,129 @@
+package labs.pm.utils.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of the process metrics
+ * FileName: Metrics.java
+ * Date/time: 18 октябрь 2026 in 19:40
+ * <p>Latency histograms and counters are registered once, usually into static final fields, and updated
+ * without locks. Registering the same name and labels again returns the same metric. scrape() renders all of
+ * them in the Prometheus text format 0.0.4, a histogram as a summary in seconds with the 0.5, 0.9, 0.99 and
+ * 0.999 quantiles since the start of the process plus a _max gauge.</p>
+ * <li>Metrics.histogram("pm_commodity_manager_seconds", "CommodityManager operations", "operation", "findProductById")</li>
+ * <li>Metrics.counter("pm_http_connections_total", "Accepted connections")</li>
+ *
+ * @author agent
+ */
+
+public final class Metrics {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final Map<String, Family> families = new LinkedHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * @param labels String[] - label name and value pairs
+     */
+    public static LatencyHistogram histogram(final String name, final String help, final String... labels) {
+        return (LatencyHistogram) register(name, help, "summary", labels);
+    }
+
+    /**
+     * @param labels String[] - label name and value pairs
+     */
+    public static LongAdder counter(final String name, final String help, final String... labels) {
+        return (LongAdder) register(name, help, "counter", labels);
+    }
+
+    private static synchronized Object register(final String name, final String help, final String type, final String[] labels) {
+        if (labels.length % 2 != 0) throw new IllegalArgumentException("Labels of " + name + " must be name and value pairs");
+        Family family = families.computeIfAbsent(name, key -> new Family(help, type));
+        if (!family.type.equals(type)) throw new IllegalArgumentException(name + " is registered as a " + family.type);
+        return family.metrics.computeIfAbsent(labels(labels), key -> type.equals("counter") ? new LongAdder() : new LatencyHistogram());
+    }
+
+    /**
+     * @return String - every registered metric in the Prometheus text format
+     */
+    public static String scrape() {
+        List<Map.Entry<String, Family>> snapshot;
+        synchronized (Metrics.class) {
+            snapshot = new ArrayList<>(families.size());
+            for (Map.Entry<String, Family> family : families.entrySet()) {
+                snapshot.add(Map.entry(family.getKey(), family.getValue().copy()));
+            }
+        }
+        StringBuilder out = new StringBuilder(4096);
+        for (Map.Entry<String, Family> entry : snapshot) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            if (family.type.equals("counter")) {
+                family.metrics.forEach((labels, counter) -> sample(out, name, labels, ((LongAdder) counter).sum()));
+                continue;
+            }
+            family.metrics.forEach((labels, metric) -> {
+                LatencyHistogram histogram = (LatencyHistogram) metric;
+                long[] values = histogram.quantiles(QUANTILES);
+                for (int i = 0; i < QUANTILES.length; i++) {
+                    String quantile = "quantile=\"" + QUANTILES[i] + "\"";
+                    sample(out, name, labels.isEmpty() ? quantile : labels + "," + quantile, seconds(values[i]));
+                }
+                sample(out, name + "_sum", labels, seconds(histogram.sum()));
+                sample(out, name + "_count", labels, histogram.count());
+            });
+            out.append("# HELP ").append(name).append("_max Longest ").append(family.help).append('\n');
+            out.append("# TYPE ").append(name).append("_max gauge\n");
+            family.metrics.forEach((labels, metric) -> sample(out, name + "_max", labels, seconds(((LatencyHistogram) metric).max())));
+        }
+        return out.toString();
+    }
+
+    private static void sample(final StringBuilder out, final String name, final String labels, final Object value) {
+        out.append(name);
+        if (!labels.isEmpty()) out.append('{').append(labels).append('}');
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static double seconds(final long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static String labels(final String[] labels) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) text.append(',');
+            text.append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")).append('"');
+        }
+        return text.toString();
+    }
+
+    private static final class Family {
+        private final String help;
+        private final String type;
+        private final Map<String, Object> metrics;
+
+        private Family(final String help, final String type) {
+            this(help, type, new LinkedHashMap<>());
+        }
+
+        private Family(final String help, final String type, final Map<String, Object> metrics) {
+            this.help = help;
+            this.type = type;
+            this.metrics = metrics;
+        }
+
+        private Family copy() {
+            return new Family(help, type, new LinkedHashMap<>(metrics));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package labs.pm.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Loading the CSV catalog
+ * FileName: CatalogLoaderTest.java
+ * Date/time: 18 октябрь 2026 in 20:21
+ *
+ * @author agent
+ */
+
+class CatalogLoaderTest {
+
+    @TempDir
+    Path data;
+
+    @Test
+    void loadsReviewsOfIdsWithThousandsGrouping() throws IOException {
+        Files.writeString(data.resolve("product1000.csv"), "FOOD, 1000, Cake, 4.03, 3, 3, 2099-01-01");
+        Files.writeString(data.resolve("reviews1000.csv"), "4, Fresh\n2, Stale\n");
+        Files.writeString(data.resolve("product12345.csv"), "DRINK, 12345, Tea, 1.50, 5, 0, 2099-01-01");
+        Files.writeString(data.resolve("reviews12345.csv"), "5, Hot\n");
+
+        CatalogLoader loader = new CatalogLoader(data, "reviews{0}.csv", true);
+        Map<Product, ProductReviews> products = loader.load(ForkJoinPool.commonPool());
+
+        assertEquals(List.of("Fresh", "Stale"), comments(products, 1000));
+        assertEquals(List.of("Hot"), comments(products, 12345));
+    }
+
+    @Test
+    void loadsReviewBodiesOfHeaderOnlyProducts() throws IOException {
+        Files.writeString(data.resolve("product2048.csv"), "NONFOOD, 2048, Cup, 9.99, 0, 1, 2099-01-01");
+        Files.writeString(data.resolve("reviews2048.csv"), "1, Cracked\n");
+
+        CatalogLoader loader = new CatalogLoader(data, "reviews{0}.csv", false);
+        Map<Product, ProductReviews> products = loader.load(ForkJoinPool.commonPool());
+        Product product = products.keySet().iterator().next();
+
+        assertEquals(1, products.get(product).size());
+        assertEquals(List.of("Cracked"), loader.loadReviewBodies(product).stream()
+                .map(Review::getComment)
+                .collect(Collectors.toList()));
+    }
+
+    private static List<String> comments(final Map<Product, ProductReviews> products, final int id) {
+        return products.entrySet().stream()
+                .filter(entry -> entry.getKey().getId() == id)
+                .flatMap(entry -> entry.getValue().stream())
+                .map(Review::getComment)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,70 @@
+package labs.pm.data;
+
+import labs.pm.exceptions.CommodityManagerException;
+import labs.pm.utils.metrics.LatencyHistogram;
+import labs.pm.utils.metrics.Metrics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The catalog around the day boundary
+ * FileName: CommodityManagerTest.java
+ * Date/time: 18 октябрь 2026 in 20:48
+ * <p>CommodityManager is a singleton reading its folders from pm. system properties, so this is the only test
+ * class that creates it.</p>
+ *
+ * @author agent
+ */
+
+class CommodityManagerTest {
+    private static final int FRESH = 1;
+    private static final int EXPIRED = 2;
+
+    @TempDir
+    static Path folder;
+    private static CommodityManager manager;
+
+    @BeforeAll
+    static void start() throws IOException, InterruptedException {
+        Path data = Files.createDirectory(folder.resolve("data"));
+        System.setProperty("pm.data.folder", data.toString());
+        System.setProperty("pm.reports.folder", Files.createDirectory(folder.resolve("reports")).toString());
+        System.setProperty("pm.temp.folder", Files.createDirectory(folder.resolve("temp")).toString());
+        Files.writeString(data.resolve("product1.csv"), "FOOD, 1, Cake, 4.00, 3, 0, " + LocalDate.now().plusDays(5));
+        Files.writeString(data.resolve("product2.csv"), "FOOD, 2, Milk, 2.00, 4, 0, " + LocalDate.now().minusDays(1));
+        LatencyHistogram startDay = Metrics.histogram("pm_commodity_manager_seconds", "CommodityManager operation latency",
+                "operation", "startDay");
+        manager = CommodityManager.getInstance();
+        for (int i = 0; i < 100 && startDay.count() == 0; i++) Thread.sleep(50);
+        assertEquals(1, startDay.count());
+    }
+
+    @Test
+    void expiredProductTakesReviewsAndStaysUnlisted() throws CommodityManagerException {
+        assertNotNull(manager.reviewProduct(EXPIRED, Rating.FIVE_STARS, "Sour"));
+        assertNotNull(manager.changeProductPrice(EXPIRED, BigDecimal.ONE));
+
+        assertTrue(manager.findProductById(EXPIRED).isExpired());
+        assertEquals(List.of("Sour"), manager.findProductReviews(EXPIRED).stream()
+                .map(Review::getComment)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(FRESH), manager.getProducts(ProductFilter.all(), ProductOrder.by(ProductOrder.Key.PRICE))
+                .stream()
+                .map(Product::getId)
+                .collect(Collectors.toList()));
+        assertEquals(1, manager.getPriceSummary(ProductFilter.all()).getCount());
+    }
+}
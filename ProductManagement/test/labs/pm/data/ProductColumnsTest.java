@@ -0,0 +1,67 @@
+package labs.pm.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rows of the columnar catalog
+ * FileName: ProductColumnsTest.java
+ * Date/time: 18 октябрь 2026 in 20:48
+ *
+ * @author agent
+ */
+
+class ProductColumnsTest {
+
+    @Test
+    void updateNeverAddsARow() {
+        Product fresh = food(1, LocalDate.now().plusDays(5));
+        Product retired = food(2, LocalDate.now().minusDays(1));
+        ProductColumns columns = new ProductColumns();
+        columns.rebuild(List.of(fresh));
+
+        columns.update(retired);
+        columns.update(fresh.applyRating(Rating.FIVE_STARS));
+
+        assertEquals(1, columns.size());
+        int[] selection = new int[columns.size()];
+        assertEquals(1, columns.select(ProductFilter.all().ratingAtLeast(5), selection));
+    }
+
+    @Test
+    void removeMovesTheLastRow() {
+        ProductColumns columns = new ProductColumns();
+        columns.rebuild(List.of(food(1, LocalDate.now().plusDays(5)), food(2, LocalDate.now().plusDays(5)),
+                food(3, LocalDate.now().plusDays(5))));
+
+        columns.remove(1);
+        columns.update(food(3, LocalDate.now().plusDays(5)).applyRating(Rating.FIVE_STARS));
+
+        assertEquals(2, columns.size());
+        int[] selection = new int[columns.size()];
+        int count = columns.select(ProductFilter.all().ratingAtLeast(5), selection);
+        assertEquals(3, columns.materialize(selection, count).get(0).getId());
+    }
+
+    @Test
+    void keepsDiscountsAbove127Percent() {
+        Product generous = new Food(1, "Cake", BigDecimal.valueOf(4.5), Rating.NOT_RATED, BigDecimal.valueOf(200),
+                LocalDate.now().plusDays(5));
+        ProductColumns columns = new ProductColumns();
+        columns.rebuild(List.of(generous, food(2, LocalDate.now().plusDays(5))));
+
+        int[] selection = new int[columns.size()];
+        int count = columns.select(ProductFilter.all().discountAtLeast(150), selection);
+
+        assertEquals(List.of(generous), columns.materialize(selection, count));
+    }
+
+    private static Product food(final int id, final LocalDate bestBefore) {
+        return new Food(id, "Cake" + id, BigDecimal.valueOf(4.5), Rating.NOT_RATED, BigDecimal.ZERO, bestBefore);
+    }
+}
@@ -0,0 +1,72 @@
+package labs.pm.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Numbering of the review journal records across compaction
+ * FileName: ReviewJournalTest.java
+ * Date/time: 18 октябрь 2026 in 20:53
+ *
+ * @author agent
+ */
+
+class ReviewJournalTest {
+    @TempDir
+    Path folder;
+
+    @Test
+    void compactionKeepsTheRecordNumbers() throws IOException {
+        Path file = folder.resolve("journal.txt");
+        try (ReviewJournal journal = new ReviewJournal(file, 8, 0)) {
+            append(journal, 1, 2, 3);
+            journal.compact(3);
+            append(journal, 4);
+        }
+        assertEquals(List.of("#3", "4, 4, review 4"), Files.readAllLines(file));
+
+        try (ReviewJournal journal = new ReviewJournal(file, 8, 0)) {
+            assertEquals(4, journal.records());
+            assertEquals(List.of(4), replay(journal, 3));
+        }
+    }
+
+    @Test
+    void compactionKeepsRecordsAddedAfterTheSnapshot() throws IOException {
+        Path file = folder.resolve("journal.txt");
+        try (ReviewJournal journal = new ReviewJournal(file, 8, 0)) {
+            append(journal, 1, 2);
+            journal.compact(1);
+        }
+        try (ReviewJournal journal = new ReviewJournal(file, 8, 0)) {
+            assertEquals(List.of(2), replay(journal, 1));
+        }
+    }
+
+    @Test
+    void journalShorterThanTheSnapshotIsReplayedWhole() throws IOException {
+        Path file = folder.resolve("journal.txt");
+        try (ReviewJournal journal = new ReviewJournal(file, 8, 0)) {
+            append(journal, 1, 2);
+            assertEquals(List.of(1, 2), replay(journal, 5));
+        }
+    }
+
+    private static void append(final ReviewJournal journal, final int... ids) {
+        for (int id : ids) journal.append(id, Rating.FOUR_STARS, "review " + id).join();
+    }
+
+    private static List<Integer> replay(final ReviewJournal journal, final long skip) throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        journal.replay(skip, (id, rating, comment) -> ids.add(id));
+        return ids;
+    }
+}
@@ -0,0 +1,53 @@
+package labs.pm.utils.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Removal of the int keyed map
+ * FileName: IntHashMapTest.java
+ * Date/time: 18 октябрь 2026 in 20:57
+ *
+ * @author agent
+ */
+
+class IntHashMapTest {
+
+    @Test
+    void removeShiftsAProbeChainBackAcrossTheTableEnd() {
+        IntHashMap<String> map = new IntHashMap<>(3);
+        int[] keys = IntIntHashMapTest.keysOfSlot(7, 7, 3);
+        for (int key : keys) map.put(key, "v" + key);
+
+        assertEquals("v" + keys[0], map.remove(keys[0]));
+        assertEquals("v" + keys[1], map.get(keys[1]));
+        assertEquals("v" + keys[2], map.get(keys[2]));
+        assertNull(map.get(keys[0]));
+
+        List<String> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertEquals(2, values.size());
+    }
+
+    @Test
+    void matchesHashMap() {
+        Random random = new Random(7);
+        IntHashMap<Integer> map = new IntHashMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2048) - 1024;
+            if (random.nextInt(3) == 0) assertEquals(expected.remove(key), map.remove(key));
+            else assertEquals(expected.put(key, i), map.put(key, i));
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -1024; key < 1024; key++) assertEquals(expected.get(key), map.get(key));
+    }
+}
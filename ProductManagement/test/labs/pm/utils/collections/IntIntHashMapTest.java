@@ -0,0 +1,96 @@
+package labs.pm.utils.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Backward shift removal of the int valued map
+ * FileName: IntIntHashMapTest.java
+ * Date/time: 18 октябрь 2026 in 20:55
+ *
+ * @author agent
+ */
+
+class IntIntHashMapTest {
+    private static final int NO_VALUE = -1;
+
+    @Test
+    void removeShiftsAProbeChainBackAcrossTheTableEnd() {
+        IntIntHashMap map = new IntIntHashMap(3, NO_VALUE);
+        int[] keys = keysOfSlot(7, 7, 3);
+        for (int key : keys) map.put(key, key * 10);
+
+        assertEquals(keys[0] * 10, map.remove(keys[0]));
+        assertEquals(keys[1] * 10, map.get(keys[1]));
+        assertEquals(keys[2] * 10, map.get(keys[2]));
+        assertEquals(keys[1] * 10, map.remove(keys[1]));
+        assertEquals(keys[2] * 10, map.get(keys[2]));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void removeKeepsEntriesOfOtherHomeSlots() {
+        IntIntHashMap map = new IntIntHashMap(3, NO_VALUE);
+        int[] six = keysOfSlot(6, 7, 2);
+        int seven = keysOfSlot(7, 7, 1)[0];
+        map.put(six[0], 1);
+        map.put(six[1], 2);
+        map.put(seven, 3);
+
+        map.remove(six[0]);
+
+        assertEquals(2, map.get(six[1]));
+        assertEquals(3, map.get(seven));
+        assertEquals(NO_VALUE, map.get(six[0]));
+    }
+
+    @Test
+    void zeroKeyIsKeptAside() {
+        IntIntHashMap map = new IntIntHashMap(NO_VALUE);
+        assertFalse(map.containsKey(0));
+        assertEquals(NO_VALUE, map.put(0, 5));
+        assertTrue(map.containsKey(0));
+        assertEquals(5, map.get(0));
+        assertEquals(1, map.size());
+        assertEquals(5, map.remove(0));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void matchesHashMap() {
+        Random random = new Random(42);
+        IntIntHashMap map = new IntIntHashMap(NO_VALUE);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2048) - 1024;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, NO_VALUE), map.remove(key));
+                expected.remove(key);
+            } else {
+                assertEquals(expected.getOrDefault(key, NO_VALUE), map.put(key, i));
+                expected.put(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -1024; key < 1024; key++) assertEquals(expected.getOrDefault(key, NO_VALUE), map.get(key));
+    }
+
+    /**
+     * Non-zero keys hashing to the home slot of a table with the mask
+     */
+    static int[] keysOfSlot(final int slot, final int mask, final int count) {
+        int[] keys = new int[count];
+        int found = 0;
+        for (int key = 1; found < count; key++) {
+            if ((IntHashing.mix(key) & mask) == slot) keys[found++] = key;
+        }
+        return keys;
+    }
+}
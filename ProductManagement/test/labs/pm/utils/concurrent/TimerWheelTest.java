@@ -0,0 +1,63 @@
+package labs.pm.utils.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Re-armed timers of the TimerWheel
+ * FileName: TimerWheelTest.java
+ * Date/time: 18 октябрь 2026 in 20:28
+ *
+ * @author agent
+ */
+
+class TimerWheelTest {
+
+    @Test
+    void shorterDeadlineFiresOnTime() throws InterruptedException {
+        try (TimerWheel wheel = new TimerWheel("test-wheel", 10, 2048)) {
+            CountDownLatch fired = new CountDownLatch(1);
+            TimerWheel.Timer timer = wheel.newTimer(fired::countDown);
+            timer.arm(10_000);
+            Thread.sleep(50);
+            long armed = System.nanoTime();
+            timer.arm(50);
+            assertTrue(fired.await(2, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - armed >= TimeUnit.MILLISECONDS.toNanos(50));
+        }
+    }
+
+    @Test
+    void repeatedlyShrunkTimerFiresOnce() throws InterruptedException {
+        try (TimerWheel wheel = new TimerWheel("test-wheel", 10, 2048)) {
+            AtomicInteger fired = new AtomicInteger();
+            TimerWheel.Timer timer = wheel.newTimer(fired::incrementAndGet);
+            for (long delay = 60_000; delay >= 100; delay /= 2) {
+                timer.arm(delay);
+                Thread.sleep(15);
+            }
+            Thread.sleep(500);
+            assertEquals(1, fired.get());
+        }
+    }
+
+    @Test
+    void disarmedTimerNeverFires() throws InterruptedException {
+        try (TimerWheel wheel = new TimerWheel("test-wheel", 10, 2048)) {
+            CountDownLatch fired = new CountDownLatch(1);
+            TimerWheel.Timer timer = wheel.newTimer(fired::countDown);
+            timer.arm(10_000);
+            Thread.sleep(50);
+            timer.arm(50);
+            timer.disarm();
+            assertFalse(fired.await(300, TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package labs.pm.utils.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Range header parsing
+ * FileName: ByteRangesTest.java
+ * Date/time: 18 октябрь 2026 in 20:55
+ *
+ * @author agent
+ */
+
+class ByteRangesTest {
+
+    @Test
+    void parsesEveryRangeForm() {
+        assertArrayEquals(new long[]{0, 99}, ByteRanges.parse("bytes=0-99", 1000));
+        assertArrayEquals(new long[]{900, 999}, ByteRanges.parse("bytes=900-", 1000));
+        assertArrayEquals(new long[]{950, 999}, ByteRanges.parse("bytes=-50", 1000));
+        assertArrayEquals(new long[]{10, 19, 0, 4}, ByteRanges.parse("bytes=10-19, 0-4", 1000));
+    }
+
+    @Test
+    void clampsToTheFile() {
+        assertArrayEquals(new long[]{500, 999}, ByteRanges.parse("bytes=500-5000", 1000));
+        assertArrayEquals(new long[]{0, 999}, ByteRanges.parse("bytes=-5000", 1000));
+    }
+
+    @Test
+    void unsatisfiableRangesAreDropped() {
+        assertArrayEquals(new long[0], ByteRanges.parse("bytes=1000-1100", 1000));
+        assertArrayEquals(new long[0], ByteRanges.parse("bytes=-0", 1000));
+        assertArrayEquals(new long[]{0, 0}, ByteRanges.parse("bytes=2000-, 0-0", 1000));
+    }
+
+    @Test
+    void malformedHeadersAreIgnored() {
+        assertNull(ByteRanges.parse("items=0-9", 1000));
+        assertNull(ByteRanges.parse("bytes=9-0", 1000));
+        assertNull(ByteRanges.parse("bytes=5", 1000));
+        assertNull(ByteRanges.parse("bytes=a-b", 1000));
+        assertNull(ByteRanges.parse("bytes=-", 1000));
+        assertNull(ByteRanges.parse("bytes=" + "0-0,".repeat(ByteRanges.MAX_RANGES) + "1-1", 1000));
+    }
+}
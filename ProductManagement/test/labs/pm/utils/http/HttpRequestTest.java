@@ -0,0 +1,47 @@
+package labs.pm.utils.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Content-Length of a parsed head
+ * FileName: HttpRequestTest.java
+ * Date/time: 18 октябрь 2026 in 20:25
+ *
+ * @author agent
+ */
+
+class HttpRequestTest {
+
+    @Test
+    void acceptsOneOrRepeatedEqualLengths() {
+        assertEquals(0, contentLength(""));
+        assertEquals(42, contentLength("Content-Length: 42\r\n"));
+        assertEquals(7, contentLength("Content-Length: 7\r\ncontent-length: 7\r\n"));
+        assertEquals(7, contentLength("Content-Length: 7, 7\r\n"));
+    }
+
+    @Test
+    void rejectsInvalidAndConflictingLengths() {
+        assertEquals(HttpRequest.MALFORMED, contentLength("Content-Length: abc\r\n"));
+        assertEquals(HttpRequest.MALFORMED, contentLength("Content-Length: -5\r\n"));
+        assertEquals(HttpRequest.MALFORMED, contentLength("Content-Length: +5\r\n"));
+        assertEquals(HttpRequest.MALFORMED, contentLength("Content-Length:\r\n"));
+        assertEquals(HttpRequest.MALFORMED, contentLength("Content-Length: 1234567890123456789\r\n"));
+        assertEquals(HttpRequest.MALFORMED, contentLength("Content-Length: 5\r\nContent-Length: 50\r\n"));
+        assertEquals(HttpRequest.MALFORMED, contentLength("Content-Length: 5, 6\r\n"));
+        assertEquals(HttpRequest.MALFORMED, contentLength("Content-Length: 5\r\nTransfer-Encoding: chunked\r\n"));
+    }
+
+    private static long contentLength(final String headers) {
+        byte[] head = ("POST /api/products/1/reviews HTTP/1.1\r\nHost: localhost\r\n" + headers + "\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        HttpRequest request = new HttpRequest();
+        assertTrue(request.parse(head, 0, head.length) > 0);
+        return request.getContentLength();
+    }
+}
@@ -0,0 +1,135 @@
+package labs.pm.utils.http;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Connection timeouts of the NIO engine
+ * FileName: NioHTTPServerTest.java
+ * Date/time: 18 октябрь 2026 in 20:47
+ * <p>Runs with the short timeouts set for surefire in the pom, the IDLE and HEADER phases last 300 ms.</p>
+ *
+ * @author agent
+ */
+
+class NioHTTPServerTest {
+    private static final String BODY = "Hello, NIO";
+
+    @TempDir
+    static Path served;
+    private static int port;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        Files.writeString(served.resolve("hello.txt"), BODY);
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        Thread server = new Thread(() -> new NioHTTPServer(port, served.toString(), 1, AdmissionControl.unlimited()).start(),
+                "nio-test-server");
+        server.setDaemon(true);
+        server.start();
+    }
+
+    @Test
+    void idleConnectionIsClosed() throws IOException {
+        try (Socket idle = connect()) {
+            idle.setSoTimeout(5000);
+            assertEquals(-1, idle.getInputStream().read());
+        }
+    }
+
+    @Test
+    void timeoutsRacingWithRequestsKeepTheLoopServing() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger served = new AtomicInteger();
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread client = new Thread(() -> {
+                while (running.get()) {
+                    try {
+                        if (get().startsWith("HTTP/1.1 200")) served.incrementAndGet();
+                    } catch (IOException ignored) {
+                        /* Counted by the final request */
+                    }
+                }
+            });
+            client.start();
+            clients.add(client);
+        }
+        for (int wave = 0; wave < 5; wave++) expireWhileWriting();
+        running.set(false);
+        for (Thread client : clients) client.join(5000);
+        assertTrue(served.get() > 0);
+        assertTrue(get().startsWith("HTTP/1.1 200"));
+    }
+
+    /**
+     * Idle connections send their first byte about when they expire, so expiries race with readiness
+     */
+    private static void expireWhileWriting() throws IOException, InterruptedException {
+        List<Socket> late = new ArrayList<>();
+        for (int i = 0; i < 200; i++) late.add(connect());
+        Thread.sleep(295);
+        for (Socket socket : late) {
+            try {
+                socket.getOutputStream().write('G');
+            } catch (SocketException ignored) {
+                /* Expired first */
+            }
+        }
+        Thread.sleep(700);
+        for (Socket socket : late) {
+            socket.setSoTimeout(2000);
+            try (InputStream in = socket.getInputStream()) {
+                assertEquals(-1, in.read());
+            } catch (SocketException ignored) {
+                /* Reset by the server */
+            }
+        }
+    }
+
+    private static String get() throws IOException {
+        try (Socket socket = connect()) {
+            socket.setSoTimeout(2000);
+            socket.getOutputStream().write("GET /hello.txt HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+            assertTrue(response.endsWith(BODY));
+            return response;
+        }
+    }
+
+    private static Socket connect() throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return new Socket("localhost", port);
+            } catch (ConnectException e) {
+                if (attempt == 50) throw e;
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package labs.pm.utils.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Accept-Encoding negotiation
+ * FileName: StaticFilesTest.java
+ * Date/time: 18 октябрь 2026 in 20:56
+ *
+ * @author agent
+ */
+
+class StaticFilesTest {
+
+    @Test
+    void exactCodingWinsOverTheWildcard() {
+        assertEquals(1f, StaticFiles.quality("gzip, deflate", "gzip"));
+        assertEquals(0.5f, StaticFiles.quality("*;q=0.1, GZIP;q=0.5", "gzip"));
+        assertEquals(0f, StaticFiles.quality("*, gzip;q=0", "gzip"));
+    }
+
+    @Test
+    void wildcardCoversTheOtherCodings() {
+        assertEquals(0.3f, StaticFiles.quality("gzip, *;q=0.3", "deflate"));
+        assertEquals(0f, StaticFiles.quality("gzip", "deflate"));
+    }
+
+    @Test
+    void malformedQualityRefusesTheCoding() {
+        assertEquals(0f, StaticFiles.quality("gzip;q=high", "gzip"));
+        assertEquals(0.8f, StaticFiles.quality("gzip ; level=1 ; Q=0.8", "gzip"));
+    }
+}
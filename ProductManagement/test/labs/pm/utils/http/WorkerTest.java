@@ -0,0 +1,112 @@
+package labs.pm.utils.http;
+
+import labs.pm.utils.concurrent.ThreadMode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keep-alive connections of the blocking engine
+ * FileName: WorkerTest.java
+ * Date/time: 18 октябрь 2026 in 20:56
+ * <p>Runs with the short timeouts set for surefire in the pom, an idle kept-alive connection lasts 300 ms.</p>
+ *
+ * @author agent
+ */
+
+class WorkerTest {
+    private static final String BODY = "Hello, worker";
+    private static final String GET = "GET /hello.txt HTTP/1.1\r\nHost: localhost\r\n\r\n";
+
+    @TempDir
+    static Path served;
+    private static int port;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        Files.writeString(served.resolve("hello.txt"), BODY);
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        Thread server = new Thread(() -> new HTTPServer(port, served.toString(), ThreadMode.PLATFORM,
+                AdmissionControl.unlimited()).start(), "worker-test-server");
+        server.setDaemon(true);
+        server.start();
+    }
+
+    @Test
+    void pipelinedRequestsShareTheConnection() throws IOException {
+        try (Socket socket = connect()) {
+            socket.setSoTimeout(2000);
+            socket.getOutputStream().write((GET + GET).getBytes(StandardCharsets.US_ASCII));
+            InputStream in = socket.getInputStream();
+            assertTrue(readResponse(in).startsWith("HTTP/1.1 200"));
+            assertTrue(readResponse(in).startsWith("HTTP/1.1 200"));
+
+            socket.getOutputStream().write("GET /hello.txt HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            assertTrue(readResponse(in).startsWith("HTTP/1.1 200"));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    void idleKeptAliveConnectionIsClosed() throws IOException {
+        try (Socket socket = connect()) {
+            socket.setSoTimeout(5000);
+            socket.getOutputStream().write(GET.getBytes(StandardCharsets.US_ASCII));
+            InputStream in = socket.getInputStream();
+            assertTrue(readResponse(in).startsWith("HTTP/1.1 200"));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    /**
+     * Reads one response: the head up to the blank line, then Content-Length bytes of body
+     */
+    private static String readResponse(final InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        while (!head.toString(StandardCharsets.US_ASCII).endsWith("\r\n\r\n")) {
+            int next = in.read();
+            if (next < 0) throw new IOException("Connection closed inside a response head");
+            head.write(next);
+        }
+        String text = head.toString(StandardCharsets.US_ASCII);
+        int length = 0;
+        for (String line : text.split("\r\n")) {
+            if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) length = Integer.parseInt(line.substring(15).trim());
+        }
+        String body = new String(in.readNBytes(length), StandardCharsets.US_ASCII);
+        assertEquals(BODY, body);
+        return text + body;
+    }
+
+    private static Socket connect() throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return new Socket("localhost", port);
+            } catch (ConnectException e) {
+                if (attempt == 50) throw e;
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+}
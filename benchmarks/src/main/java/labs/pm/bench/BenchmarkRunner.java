@@ -0,0 +1,41 @@
+package labs.pm.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Entry point of benchmarks.jar
+ * FileName: BenchmarkRunner.java
+ * Date/time: 18 октябрь 2026 in 19:02
+ * <p>Accepts the usual JMH command line. Runs every selected benchmark once per thread count of
+ * -Dbench.threads (default 1, e.g. -Dbench.threads=1,4,16,32) and writes one JSON result file per thread
+ * count into -Dbench.results (default target/jmh), ready to be diffed between releases.</p>
+ *
+ * @author agent
+ */
+
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, java.io.IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Path results = Path.of(System.getProperty("bench.results", "target/jmh"));
+        Files.createDirectories(results);
+        for (String threads : System.getProperty("bench.threads", "1").split(",")) {
+            int count = Integer.parseInt(threads.trim());
+            new Runner(new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(count)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(results.resolve("jmh-result-t" + count + ".json").toString())
+                    .build())
+                    .run();
+        }
+    }
+}
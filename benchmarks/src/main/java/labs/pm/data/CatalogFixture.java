@@ -0,0 +1,97 @@
+package labs.pm.data;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Synthetic catalogs for the benchmarks
+ * FileName: CatalogFixture.java
+ * Date/time: 18 октябрь 2026 in 19:02
+ * <p>Products cycle through FOOD, DRINK and NONFOOD with ids 1..size. Every product gets the same number
+ * of reviews with ratings spread over 1..5 stars.</p>
+ *
+ * @author agent
+ */
+
+public final class CatalogFixture {
+
+    private CatalogFixture() {
+    }
+
+    /**
+     * Points CommodityManager at data, reports and temp folders under root, must run before getInstance()
+     */
+    public static void useFolders(final Path root) throws IOException {
+        for (String folder : new String[]{"data", "reports", "temp"}) {
+            Path path = Files.createDirectories(root.resolve(folder));
+            System.setProperty("pm." + folder + ".folder", path.toString());
+        }
+    }
+
+    public static Product product(final int id) {
+        String name = "Product " + id;
+        BigDecimal price = BigDecimal.valueOf(100 + id % 9900, 2);
+        Rating rating = Rateable.convert(id % 6);
+        BigDecimal discount = BigDecimal.valueOf(id % 20);
+        return switch (id % 3) {
+            case 0 -> new Food(id, name, price, rating, discount, LocalDate.now().plusDays(id % 30));
+            case 1 -> new Drink(id, name, price, rating, discount);
+            default -> new NonFood(id, name, price, rating, discount);
+        };
+    }
+
+    /**
+     * Writes catalog.snapshot with size products into the data folder
+     */
+    public static void writeSnapshot(final Path root, final int size, final int reviewsPerProduct) throws IOException {
+        Map<Product, ProductReviews> products = new HashMap<>(size * 2);
+        for (int id = 1; id <= size; id++) {
+            ProductReviews reviews = new ProductReviews();
+            for (int r = 0; r < reviewsPerProduct; r++) reviews.add(new Review(Rateable.convert(1 + (id + r) % 5), "Review " + r));
+            products.put(product(id), reviews);
+        }
+        Path data = Files.createDirectories(root.resolve("data"));
+        Path temp = Files.createDirectories(root.resolve("temp"));
+        CatalogSnapshot.write(data.resolve("catalog.snapshot"), temp.resolve("catalog.tmp"), products, products::get, 0);
+    }
+
+    /**
+     * Writes product{id}.csv and reviews{id}.csv files of size products into the data folder
+     */
+    public static void writeCsv(final Path root, final int size, final int reviewsPerProduct) throws IOException {
+        Path data = Files.createDirectories(root.resolve("data"));
+        for (int id = 1; id <= size; id++) {
+            Product product = product(id);
+            try (BufferedWriter out = Files.newBufferedWriter(data.resolve("product" + id + ".csv"), StandardCharsets.UTF_8)) {
+                out.write(ProductType.of(product) + ", " + id + ", " + product.getName() + ", " + product.getPrice()
+                        + ", " + product.getRating().ordinal() + ", " + product.getPercentageDiscount() + ", " + product.getBestBefore());
+            }
+            if (reviewsPerProduct == 0) continue;
+            try (BufferedWriter out = Files.newBufferedWriter(data.resolve("reviews" + id + ".csv"), StandardCharsets.UTF_8)) {
+                for (int r = 0; r < reviewsPerProduct; r++) {
+                    out.write((1 + (id + r) % 5) + ", Review " + r);
+                    out.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Path - folder under java.io.tmpdir reused between forks of the same benchmark parameters
+     */
+    public static Path sharedFolder(final String name) {
+        try {
+            return Files.createDirectories(Path.of(System.getProperty("java.io.tmpdir"), "pm-bench", name));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
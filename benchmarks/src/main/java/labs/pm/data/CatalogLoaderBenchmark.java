@@ -0,0 +1,55 @@
+package labs.pm.data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start cost of the catalog: CSV folder versus binary snapshot
+ * FileName: CatalogLoaderBenchmark.java
+ * Date/time: 18 октябрь 2026 in 19:02
+ * <p>The synthetic folders are generated once into java.io.tmpdir/pm-bench and reused by later runs,
+ * writing a million product files takes a while.</p>
+ *
+ * @author agent
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class CatalogLoaderBenchmark {
+
+    @Param({"10000", "1000000"})
+    int productCount;
+
+    private Path root;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = CatalogFixture.sharedFolder("catalog-" + productCount);
+        Path complete = root.resolve("complete");
+        if (Files.notExists(complete)) {
+            CatalogFixture.writeCsv(root, productCount, 2);
+            CatalogFixture.writeSnapshot(root, productCount, 2);
+            Files.createFile(complete);
+        }
+    }
+
+    @Benchmark
+    public Map<Product, ProductReviews> loadAllData() throws IOException {
+        return new CatalogLoader(root.resolve("data"), "reviews{0}.csv", true).load(ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public Map<Product, ProductReviews> restoreData() throws IOException {
+        return CatalogSnapshot.read(root.resolve("data").resolve("catalog.snapshot"), true).products;
+    }
+}
@@ -0,0 +1,89 @@
+package labs.pm.data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Catalog-wide filters and aggregates on Product objects against ProductColumns
+ * FileName: CatalogScanBenchmark.java
+ * Date/time: 18 октябрь 2026 in 20:03
+ * <p>"objects*" stream over the products like CommodityManager does without columns, "columns*" run the kernels
+ * over the primitive arrays and touch only the matching products. The filter keeps food rated 3 stars or more
+ * priced 20.00 .. 80.00, "selective" keeps products with a discount of 19%, both about 5% of the catalog.</p>
+ *
+ * @author agent
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CatalogScanBenchmark {
+    private static final BigDecimal MIN_PRICE = BigDecimal.valueOf(2000, 2);
+    private static final BigDecimal MAX_PRICE = BigDecimal.valueOf(8000, 2);
+    private static final ProductFilter FILTER = ProductFilter.all().type(ProductType.FOOD).ratingAtLeast(3)
+            .priceBetween(Money.of(MIN_PRICE), Money.of(MAX_PRICE));
+    private static final Predicate<Product> LAMBDA = product -> product instanceof Food
+            && product.getRating().ordinal() >= 3
+            && product.getPrice().compareTo(MIN_PRICE) >= 0
+            && product.getPrice().compareTo(MAX_PRICE) <= 0;
+    private static final ProductFilter SELECTIVE = ProductFilter.all().discountAtLeast(19);
+
+    @Param({"100000", "1000000"})
+    private int catalogSize;
+
+    private List<Product> products;
+    private ProductColumns columns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = new ArrayList<>(catalogSize);
+        for (int id = 1; id <= catalogSize; id++) products.add(CatalogFixture.product(id));
+        columns = new ProductColumns();
+        columns.rebuild(products);
+    }
+
+    @Benchmark
+    public List<Product> objectsFilter() {
+        return products.stream().filter(LAMBDA).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Product> columnsFilter() {
+        int[] selection = new int[columns.size()];
+        return columns.materialize(selection, columns.select(FILTER, selection));
+    }
+
+    @Benchmark
+    public LongSummaryStatistics objectsSummary() {
+        return products.stream().filter(LAMBDA)
+                .mapToLong(product -> product.getPrice().unscaledValue().longValue())
+                .summaryStatistics();
+    }
+
+    @Benchmark
+    public PriceSummary columnsSummary() {
+        int[] selection = new int[columns.size()];
+        return columns.summarize(selection, columns.select(FILTER, selection));
+    }
+
+    @Benchmark
+    public List<Product> objectsSelective() {
+        return products.stream().filter(product -> product.getPercentageDiscount() >= 19).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Product> columnsSelective() {
+        int[] selection = new int[columns.size()];
+        return columns.materialize(selection, columns.select(SELECTIVE, selection));
+    }
+}
@@ -0,0 +1,75 @@
+package labs.pm.data;
+
+import labs.pm.exceptions.CommodityManagerException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CommodityManager hot paths over growing catalogs
+ * FileName: CommodityManagerBenchmark.java
+ * Date/time: 18 октябрь 2026 in 19:02
+ * <p>Every trial starts a fresh JVM on a fresh snapshot of catalogSize products, so the singleton sees the
+ * requested size. Run with -Dbench.threads=1,4,16,32 to see how per-product operations scale.</p>
+ *
+ * @author agent
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommodityManagerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int catalogSize;
+
+    private CommodityManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path root = Files.createTempDirectory("pm-bench-manager");
+        CatalogFixture.writeSnapshot(root, catalogSize, 4);
+        CatalogFixture.useFolders(root);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        manager = CommodityManager.getInstance();
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(catalogSize) + 1;
+    }
+
+    @Benchmark
+    public Product findProductById() throws CommodityManagerException {
+        return manager.findProductById(randomId());
+    }
+
+    @Benchmark
+    public Product reviewProduct() {
+        return manager.reviewProduct(randomId(), Rateable.convert(ThreadLocalRandom.current().nextInt(5) + 1), "Benchmark review");
+    }
+
+    @Benchmark
+    public void getDiscounts(final Blackhole blackhole) {
+        blackhole.consume(manager.getDiscounts("en-US"));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void printProducts() {
+        manager.printProducts(product -> product.getRating().ordinal() >= 4,
+                Comparator.comparing(Product::getPrice), "en-US");
+    }
+}
@@ -0,0 +1,94 @@
+package labs.pm.data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Top-N listings sorted in full, kept in a bounded heap and walked on a SortedIndex
+ * FileName: IndexWalkBenchmark.java
+ * Date/time: 18 октябрь 2026 in 20:07
+ * <p>"sort*" filter the catalog and sort all matches, "heap*" keep the first 20 matches in TopK like CommodityManager
+ * does for an order without an index, "walk*" walk the price index from the top and stop after 20 matches.
+ * "Filtered" keeps food rated 3 stars or more, about a tenth of the catalog.</p>
+ *
+ * @author agent
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IndexWalkBenchmark {
+    private static final int LIMIT = 20;
+    private static final ProductOrder ORDER = ProductOrder.by(ProductOrder.Key.PRICE).reversed();
+    private static final ProductFilter FILTER = ProductFilter.all().type(ProductType.FOOD).ratingAtLeast(3);
+
+    @Param({"100000", "1000000"})
+    private int catalogSize;
+
+    private List<Product> products;
+    private Map<Integer, Product> byId;
+    private ProductIndexes indexes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = new ArrayList<>(catalogSize);
+        byId = new HashMap<>(catalogSize * 2);
+        for (int id = 1; id <= catalogSize; id++) {
+            Product product = CatalogFixture.product(id);
+            products.add(product);
+            byId.put(id, product);
+        }
+        indexes = new ProductIndexes();
+        indexes.rebuild(products);
+    }
+
+    @Benchmark
+    public List<Product> sortTop() {
+        return products.stream().sorted(ORDER).limit(LIMIT).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Product> heapTop() {
+        return products.stream().collect(TopK.of(ORDER, LIMIT));
+    }
+
+    @Benchmark
+    public List<Product> walkTop() {
+        return walk(ProductFilter.all());
+    }
+
+    @Benchmark
+    public List<Product> sortFiltered() {
+        return products.stream().filter(FILTER).sorted(ORDER).limit(LIMIT).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Product> heapFiltered() {
+        return products.stream().filter(FILTER).collect(TopK.of(ORDER, LIMIT));
+    }
+
+    @Benchmark
+    public List<Product> walkFiltered() {
+        return walk(FILTER);
+    }
+
+    private List<Product> walk(final ProductFilter filter) {
+        List<Product> result = new ArrayList<>(LIMIT);
+        ProductOrder.Key key = ORDER.getKey();
+        indexes.get(key).walk(filter.lowerBound(key), filter.upperBound(key), ORDER.isDescending(), id -> {
+            Product product = byId.get(id);
+            if (filter.test(product)) result.add(product);
+            return result.size() < LIMIT;
+        });
+        return result;
+    }
+}
@@ -0,0 +1,76 @@
+package labs.pm.data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing and rating paths of a single Product
+ * FileName: ProductBenchmark.java
+ * Date/time: 18 октябрь 2026 in 19:02
+ * <p>Run with -prof gc to see the allocation rate per call (gc.alloc.rate.norm). The discounts are precomputed
+ * Money and the clocks of Food and Drink are cached, so every getDiscount benchmark has to report 0 B/op, the
+ * last day of a Food included; "catalogDiscountCents" sums the discounts of 1000 products the same way.</p>
+ *
+ * @author agent
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductBenchmark {
+
+    private Product food;
+    private Product drink;
+    private Product nonFood;
+    private Product lastDayFood;
+    private Product[] catalog;
+
+    @Setup
+    public void setUp() {
+        food = CatalogFixture.product(3);
+        drink = CatalogFixture.product(1);
+        nonFood = CatalogFixture.product(2);
+        lastDayFood = new Food(3, "Last day", BigDecimal.valueOf(1999, 2), Rating.THREE_STARS, BigDecimal.TEN,
+                LocalDate.now());
+        catalog = new Product[1000];
+        for (int i = 0; i < catalog.length; i++) catalog[i] = CatalogFixture.product(i + 1);
+    }
+
+    @Benchmark
+    public Money foodGetDiscount() {
+        return food.getDiscount();
+    }
+
+    @Benchmark
+    public Money drinkGetDiscount() {
+        return drink.getDiscount();
+    }
+
+    @Benchmark
+    public Money nonFoodGetDiscount() {
+        return nonFood.getDiscount();
+    }
+
+    @Benchmark
+    public Money lastDayFoodGetDiscount() {
+        return lastDayFood.getDiscount();
+    }
+
+    @Benchmark
+    public long catalogDiscountCents() {
+        long cents = 0;
+        for (Product product : catalog) cents += product.getDiscount().cents();
+        return cents;
+    }
+
+    @Benchmark
+    public Product applyRating() {
+        return food.applyRating(Rating.FOUR_STARS);
+    }
+}
@@ -0,0 +1,76 @@
+package labs.pm.utils.concurrent;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a connection timeout that is armed and cancelled for every request
+ * FileName: TimerWheelBenchmark.java
+ * Date/time: 18 октябрь 2026 in 19:55
+ * <p>"wheel" arms a reusable TimerWheel timer and disarms it, "scheduler" schedules a task on a
+ * ScheduledThreadPoolExecutor and cancels it, the way one timer per socket would be kept. Every thread has its
+ * own timer, as every connection would, and -p armed keeps that many more timers pending all the time, e.g. the
+ * idle connections of a busy server. Run it with -Dbench.threads=1,4,16 and -prof gc.</p>
+ *
+ * @author agent
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimerWheelBenchmark {
+    private static final long TIMEOUT_MILLIS = 60_000;
+    private static final Runnable NOTHING = () -> {
+    };
+
+    @Param({"0", "50000"})
+    private int armed;
+
+    private TimerWheel wheel;
+    private ScheduledThreadPoolExecutor scheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        wheel = new TimerWheel("bench-timeouts", 100, 512);
+        scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+        for (int i = 0; i < armed; i++) {
+            wheel.newTimer(NOTHING).arm(TIMEOUT_MILLIS);
+            scheduler.schedule(NOTHING, TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        wheel.close();
+        scheduler.shutdownNow();
+    }
+
+    @State(Scope.Thread)
+    public static class Connection {
+        private TimerWheel.Timer timer;
+
+        @Setup(Level.Trial)
+        public void setUp(final TimerWheelBenchmark benchmark) {
+            timer = benchmark.wheel.newTimer(NOTHING);
+        }
+    }
+
+    @Benchmark
+    public void wheel(final Connection connection) {
+        connection.timer.arm(TIMEOUT_MILLIS);
+        connection.timer.disarm();
+    }
+
+    @Benchmark
+    public boolean scheduler() {
+        ScheduledFuture<?> timeout = scheduler.schedule(NOTHING, TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        return timeout.cancel(false);
+    }
+}
@@ -0,0 +1,94 @@
+package labs.pm.utils.http;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bandwidth and throughput of compressed static files
+ * FileName: CompressionBenchmark.java
+ * Date/time: 18 октябрь 2026 in 19:35
+ * <p>"request" fetches a 160 KB csv and a 16 KB html page over a persistent connection with the given
+ * Accept-Encoding, the "bodyBytes" counter shows the bytes on the wire per second next to the requests.
+ * "precompressed.html" has a .gz sibling. "compressPerRequest" is what every request would cost if the
+ * compressed bodies were not cached.</p>
+ *
+ * @author agent
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"catalog.csv", "index.html", "precompressed.html"})
+    String file;
+
+    @Param({"identity", "gzip", "deflate"})
+    String encoding;
+
+    private int port;
+    private byte[] content;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path directory = Files.createTempDirectory("pm-bench-compression");
+        StringBuilder csv = new StringBuilder();
+        for (int id = 1; csv.length() < 160 * 1024; id++) {
+            csv.append(id).append(", Product ").append(id).append(", ").append(ThreadLocalRandom.current().nextInt(100, 10000) / 100.0)
+                    .append(", ").append(id % 6).append('\n');
+        }
+        String html = "<html><body>" + "<p>Product management</p>\n".repeat(16 * 1024 / 26) + "</body></html>";
+        Files.writeString(directory.resolve("catalog.csv"), csv);
+        Files.writeString(directory.resolve("index.html"), html);
+        Files.writeString(directory.resolve("precompressed.html"), html);
+        Files.write(directory.resolve("precompressed.html.gz"), StaticFiles.compress(html.getBytes(StandardCharsets.UTF_8), "gzip"));
+        content = Files.readAllBytes(directory.resolve(file));
+        port = LoadClient.freePort();
+        LoadClient.startDaemon("bench-http-server", () -> new HTTPServer(port, directory + "/").start());
+        LoadClient.awaitServer(port);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Client {
+        public long bodyBytes;
+        private KeepAliveClient connection;
+        private byte[] request;
+
+        @Setup(Level.Iteration)
+        public void connect(final CompressionBenchmark benchmark) throws IOException {
+            request = ("GET /" + benchmark.file + " HTTP/1.1\r\nHost: localhost\r\nAccept-Encoding: " + benchmark.encoding
+                    + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            connection = new KeepAliveClient(benchmark.port);
+            connection.open();
+        }
+
+        @TearDown(Level.Iteration)
+        public void disconnect() throws IOException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public long request(final Client client) throws IOException {
+        client.connection.write(client.request);
+        long length = client.connection.readResponse();
+        client.bodyBytes += length;
+        client.connection.reopenIfClosed();
+        return length;
+    }
+
+    @Benchmark
+    public byte[] compressPerRequest() throws IOException {
+        return encoding.equals("identity") ? content : StaticFiles.compress(content, encoding);
+    }
+}
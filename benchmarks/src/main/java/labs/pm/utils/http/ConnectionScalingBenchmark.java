@@ -0,0 +1,56 @@
+package labs.pm.utils.http;
+
+import labs.pm.utils.concurrent.ThreadMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bursts of simultaneous connections against both server engines
+ * FileName: ConnectionScalingBenchmark.java
+ * Date/time: 18 октябрь 2026 in 19:07
+ * <p>One operation opens all connections at once and waits until every response is received. Raise the open
+ * files limit (ulimit -n) before trying bursts above about a thousand connections. The servers run without
+ * admission limits, the benchmark measures the engines and not the load shedding.</p>
+ *
+ * @author agent
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class ConnectionScalingBenchmark {
+
+    @Param({"thread", "nio"})
+    String engine;
+
+    @Param({"100", "1000"})
+    int connections;
+
+    private int port;
+    private final byte[] request = "GET /hello.txt HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path directory = Files.createTempDirectory("pm-bench-scaling");
+        Files.writeString(directory.resolve("hello.txt"), "Access!!! Congratulations!!!");
+        port = LoadClient.freePort();
+        String served = directory + "/";
+        LoadClient.startDaemon("bench-" + engine + "-server", "nio".equals(engine)
+                ? () -> new NioHTTPServer(port, served, Runtime.getRuntime().availableProcessors(), AdmissionControl.unlimited()).start()
+                : () -> new HTTPServer(port, served, ThreadMode.PLATFORM, AdmissionControl.unlimited()).start());
+        LoadClient.awaitServer(port);
+    }
+
+    @Benchmark
+    public long burst() throws IOException {
+        return LoadClient.burst(port, request, connections);
+    }
+}
@@ -0,0 +1,49 @@
+package labs.pm.utils.http;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of a typical browser request head
+ * FileName: HttpRequestBenchmark.java
+ * Date/time: 18 октябрь 2026 in 19:24
+ * <p>Run with -prof gc: "head" parses and asks for Connection and Content-Length only, which must not
+ * allocate, "target" also builds the target and the Range strings a file lookup needs.</p>
+ *
+ * @author agent
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpRequestBenchmark {
+
+    private final byte[] head = ("GET /labs/pm/index.html?lang=en HTTP/1.1\r\n"
+            + "Host: localhost:8080\r\n"
+            + "User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:128.0) Gecko/20100101 Firefox/128.0\r\n"
+            + "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8\r\n"
+            + "Accept-Language: en-GB,en;q=0.5\r\n"
+            + "Accept-Encoding: gzip, deflate, br\r\n"
+            + "Connection: keep-alive\r\n"
+            + "If-None-Match: \"2a6-18f2c1e9b40\"\r\n"
+            + "Range: bytes=0-1023\r\n"
+            + "Cache-Control: max-age=0\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    private final HttpRequest request = new HttpRequest();
+
+    @Benchmark
+    public boolean head() {
+        request.parse(head, 0, head.length);
+        return request.isKeepAlive() && request.getContentLength() == 0;
+    }
+
+    @Benchmark
+    public int target() {
+        request.parse(head, 0, head.length);
+        return request.getTarget().length() + request.header("range").length();
+    }
+}
@@ -0,0 +1,116 @@
+package labs.pm.utils.http;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second over new, persistent and pipelined connections
+ * FileName: KeepAliveBenchmark.java
+ * Date/time: 18 октябрь 2026 in 19:19
+ * <p>Serves the bundled files directory (ProductManagement/src/labs/pm/utils/http/files, or -Dbench.http.files)
+ * with the thread per connection HTTPServer. "close" opens a connection per request, "keepalive" reuses one
+ * connection per benchmark thread, "pipelined" sends DEPTH requests before reading the responses. Every
+ * invocation makes DEPTH requests, the score counts requests.</p>
+ *
+ * @author agent
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeepAliveBenchmark {
+    private static final int DEPTH = 8;
+
+    @Param({"hello.txt", "index.html"})
+    String file;
+
+    @Param({"close", "keepalive", "pipelined"})
+    String connection;
+
+    private int port;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path directory = filesDirectory();
+        port = LoadClient.freePort();
+        LoadClient.startDaemon("bench-http-server", () -> new HTTPServer(port, directory + "/").start());
+        LoadClient.awaitServer(port);
+    }
+
+    private static Path filesDirectory() {
+        String configured = System.getProperty("bench.http.files");
+        if (configured != null) return Path.of(configured);
+        Path relative = Path.of("ProductManagement", "src", "labs", "pm", "utils", "http", "files");
+        for (Path base = Path.of("").toAbsolutePath(); base != null; base = base.getParent()) {
+            if (Files.isDirectory(base.resolve(relative))) return base.resolve(relative);
+        }
+        throw new IllegalStateException("Bundled files directory not found, pass -Dbench.http.files=<dir>");
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private KeepAliveClient connection;
+        private byte[] request;
+        private byte[] pipeline;
+        private byte[] closing;
+
+        @Setup(Level.Iteration)
+        public void connect(final KeepAliveBenchmark benchmark) throws IOException {
+            String head = "GET /" + benchmark.file + " HTTP/1.1\r\nHost: localhost\r\n";
+            request = (head + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            closing = (head + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            pipeline = (head + "\r\n").repeat(DEPTH).getBytes(StandardCharsets.US_ASCII);
+            connection = new KeepAliveClient(benchmark.port);
+            if (!benchmark.connection.equals("close")) connection.open();
+        }
+
+        @TearDown(Level.Iteration)
+        public void disconnect() throws IOException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DEPTH)
+    public long requests(final Client client) throws IOException {
+        long total = 0;
+        switch (connection) {
+            case "close" -> {
+                for (int i = 0; i < DEPTH; i++) {
+                    client.connection.open();
+                    try {
+                        client.connection.write(client.closing);
+                        total += client.connection.readResponse();
+                    } finally {
+                        client.connection.close();
+                    }
+                }
+            }
+            case "keepalive" -> {
+                for (int i = 0; i < DEPTH; i++) {
+                    client.connection.write(client.request);
+                    total += client.connection.readResponse();
+                    client.connection.reopenIfClosed();
+                }
+            }
+            default -> {
+                client.connection.write(client.pipeline);
+                for (int i = 0; i < DEPTH; i++) {
+                    total += client.connection.readResponse();
+                    if (client.connection.reopenIfClosed()) {
+                        for (int unanswered = i + 1; unanswered < DEPTH; unanswered++) client.connection.write(client.request);
+                    }
+                }
+            }
+        }
+        return total;
+    }
+}
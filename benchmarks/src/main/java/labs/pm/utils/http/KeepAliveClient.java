@@ -0,0 +1,91 @@
+package labs.pm.utils.http;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Locale;
+
+/**
+ * Blocking client of a persistent HTTP/1.1 connection for the benchmarks
+ * FileName: KeepAliveClient.java
+ * Date/time: 18 октябрь 2026 in 19:30
+ * <p>Writes raw requests and reads responses by their Content-Length. The server ends a persistent connection
+ * after pm.http.keepalive.max requests, like any other would, reopenIfClosed() then opens a new one.</p>
+ *
+ * @author agent
+ */
+
+final class KeepAliveClient implements AutoCloseable {
+    private final int port;
+    private Socket socket;
+    private OutputStream output;
+    private InputStream input;
+    private boolean closed;
+    private int status;
+
+    KeepAliveClient(final int port) {
+        this.port = port;
+    }
+
+    void open() throws IOException {
+        socket = new Socket("localhost", port);
+        socket.setTcpNoDelay(true);
+        output = socket.getOutputStream();
+        input = new BufferedInputStream(socket.getInputStream());
+        closed = false;
+    }
+
+    void write(final byte[] request) throws IOException {
+        output.write(request);
+    }
+
+    /**
+     * @return long - body length of the response
+     */
+    long readResponse() throws IOException {
+        long length = 0;
+        StringBuilder line = new StringBuilder();
+        status = 0;
+        while (true) {
+            int b = input.read();
+            if (b < 0) throw new IOException("Connection closed inside a response");
+            if (b != '\n') {
+                if (b != '\r') line.append((char) b);
+                continue;
+            }
+            if (line.length() == 0) break;
+            String header = line.toString().toLowerCase(Locale.ROOT);
+            if (status == 0) status = Integer.parseInt(header.substring(9, 12));
+            if (header.startsWith("content-length:")) length = Long.parseLong(header.substring(15).trim());
+            if (header.equals("connection: close")) closed = true;
+            line.setLength(0);
+        }
+        input.skipNBytes(length);
+        return length;
+    }
+
+    /**
+     * @return int - status code of the last response
+     */
+    int status() {
+        return status;
+    }
+
+    /**
+     * @return true if the last response closed the connection and a new one was opened
+     */
+    boolean reopenIfClosed() throws IOException {
+        if (!closed) return false;
+        close();
+        open();
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (socket != null) socket.close();
+        socket = null;
+    }
+}
@@ -0,0 +1,163 @@
+package labs.pm.utils.http;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/**
+ * Non-blocking load generator for the HTTP benchmarks
+ * FileName: LoadClient.java
+ * Date/time: 18 октябрь 2026 in 19:07
+ * <p>Keeps any number of connections open at the same time from a single thread, so the client side
+ * never runs out of threads before the server does.</p>
+ *
+ * @author agent
+ */
+
+final class LoadClient {
+
+    private LoadClient() {
+    }
+
+    /**
+     * Opens all connections at once, sends the request on each and reads every response until the server closes,
+     * so the request has to ask for Connection: close
+     *
+     * @return long - total bytes received
+     */
+    static long burst(final int port, final byte[] request, final int connections) throws IOException {
+        return burst(port, request, connections, null);
+    }
+
+    /**
+     * @param latencies long[] - if not null, receives the nanoseconds from connect to the end of every response,
+     *                  -1 for a connection that failed
+     */
+    static long burst(final int port, final byte[] request, final int connections, final long[] latencies) throws IOException {
+        return burst(port, request, connections, latencies, null);
+    }
+
+    /**
+     * @param statuses int[] - if not null, receives the status code of every response, 0 for a connection that
+     *                 failed before the status line
+     */
+    static long burst(final int port, final byte[] request, final int connections, final long[] latencies,
+                      final int[] statuses) throws IOException {
+        long received = 0;
+        int open = 0;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < connections; i++) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                Exchange exchange = new Exchange(i, request);
+                try {
+                    channel.connect(new InetSocketAddress("localhost", port));
+                } catch (IOException e) {
+                    channel.close();
+                    exchange.finish(latencies, false);
+                    continue;
+                }
+                channel.register(selector, SelectionKey.OP_CONNECT, exchange);
+                open++;
+            }
+            while (open > 0) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    SocketChannel channel = (SocketChannel) key.channel();
+                    Exchange exchange = (Exchange) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            channel.finishConnect();
+                            key.interestOps(SelectionKey.OP_WRITE);
+                        } else if (key.isWritable()) {
+                            channel.write(exchange.out);
+                            if (!exchange.out.hasRemaining()) key.interestOps(SelectionKey.OP_READ);
+                        } else if (key.isReadable()) {
+                            buffer.clear();
+                            int read = channel.read(buffer);
+                            if (read > 0) {
+                                received += read;
+                                exchange.status(buffer, statuses);
+                            }
+                            else {
+                                key.cancel();
+                                channel.close();
+                                exchange.finish(latencies, true);
+                                open--;
+                            }
+                        }
+                    } catch (IOException e) {
+                        key.cancel();
+                        channel.close();
+                        exchange.finish(latencies, false);
+                        open--;
+                    }
+                }
+            }
+        }
+        return received;
+    }
+
+    private static class Exchange {
+        private final int index;
+        private final ByteBuffer out;
+        private final long start = System.nanoTime();
+
+        private Exchange(final int index, final byte[] request) {
+            this.index = index;
+            this.out = ByteBuffer.wrap(request);
+        }
+
+        /**
+         * Takes the status code from the first read of the response, it always holds the whole status line here
+         */
+        private void status(final ByteBuffer read, final int[] statuses) {
+            if (statuses == null || statuses[index] != 0 || read.position() < 12) return;
+            statuses[index] = (read.get(9) - '0') * 100 + (read.get(10) - '0') * 10 + read.get(11) - '0';
+        }
+
+        private void finish(final long[] latencies, final boolean complete) {
+            if (latencies != null) latencies[index] = complete ? System.nanoTime() - start : -1;
+        }
+    }
+
+    /**
+     * @return int - free local port
+     */
+    static int freePort() throws IOException {
+        try (ServerSocket probe = new ServerSocket(0)) {
+            return probe.getLocalPort();
+        }
+    }
+
+    /**
+     * Waits until something accepts connections on the port
+     */
+    static void awaitServer(final int port) throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", port));
+                return;
+            } catch (IOException e) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("HTTP server did not start on port " + port);
+    }
+
+    static void startDaemon(final String name, final Runnable server) {
+        Thread thread = new Thread(server, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
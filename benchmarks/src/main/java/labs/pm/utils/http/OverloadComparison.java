@@ -0,0 +1,74 @@
+package labs.pm.utils.http;
+
+import labs.pm.utils.concurrent.ThreadMode;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load shedding against unlimited admission under a spike
+ * FileName: OverloadComparison.java
+ * Date/time: 18 октябрь 2026 in 19:44
+ * <p>Not a JMH benchmark, a spike is one burst of connections at once. Usage:
+ * OverloadComparison [connections, default 2000] [rounds, default 5] [max in-flight, default 32].
+ * Every connection asks for a 64 KB file. "unlimited" admits every connection and request, "limited" keeps
+ * max in-flight requests and 4 times as many waiting for at most 100 ms, further connections get 503 at accept.
+ * Prints per round served and refused requests and the latency percentiles of the served ones, the first
+ * round is a warm-up. A burst of n clients holds 2n sockets in this process, check ulimit -n.</p>
+ *
+ * @author agent
+ */
+
+public class OverloadComparison {
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int maxInFlight = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        Path directory = Files.createTempDirectory("pm-overload");
+        byte[] file = new byte[64 * 1024];
+        ThreadLocalRandom.current().nextBytes(file);
+        Files.write(directory.resolve("spike.bin"), file);
+        byte[] request = "GET /spike.bin HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        System.out.printf("%-10s %8s %8s %8s %8s %10s %10s %10s%n",
+                "admission", "clients", "served", "503", "failed", "p50 ms", "p99 ms", "max ms");
+        run("unlimited", AdmissionControl.unlimited(), directory, request, connections, rounds);
+        run("limited", new AdmissionControl(maxInFlight, 4 * maxInFlight, 100, 5 * maxInFlight, 0, 1), directory, request, connections, rounds);
+    }
+
+    private static void run(final String name, final AdmissionControl admission, final Path directory, final byte[] request,
+                            final int connections, final int rounds) throws Exception {
+        int port = LoadClient.freePort();
+        LoadClient.startDaemon("bench-" + name + "-server",
+                () -> new HTTPServer(port, directory + "/", ThreadMode.PLATFORM, admission).start());
+        LoadClient.awaitServer(port);
+        long[] served = new long[0];
+        int refused = 0;
+        int failed = 0;
+        for (int round = 0; round < rounds; round++) {
+            long[] latencies = new long[connections];
+            int[] statuses = new int[connections];
+            LoadClient.burst(port, request, connections, latencies, statuses);
+            if (round == 0) continue;
+            int count = served.length;
+            served = Arrays.copyOf(served, count + connections);
+            for (int i = 0; i < connections; i++) {
+                if (latencies[i] >= 0 && statuses[i] == 200) served[count++] = latencies[i];
+                else if (statuses[i] == 503) refused++;
+                else failed++;
+            }
+            served = Arrays.copyOf(served, count);
+        }
+        Arrays.sort(served);
+        System.out.printf("%-10s %8d %8d %8d %8d %10.2f %10.2f %10.2f%n", name, connections, served.length, refused, failed,
+                percentile(served, 0.50), percentile(served, 0.99), served.length == 0 ? 0.0 : served[served.length - 1] / 1e6);
+    }
+
+    private static double percentile(final long[] sorted, final double quantile) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,99 @@
+package labs.pm.utils.http;
+
+import labs.pm.data.CatalogFixture;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second of the JSON API
+ * FileName: RestApiBenchmark.java
+ * Date/time: 18 октябрь 2026 in 19:30
+ * <p>Starts the thread per connection HTTPServer in the benchmark JVM over a fresh snapshot of catalogSize
+ * products, every benchmark thread keeps one persistent connection. "product" asks for a random product with
+ * its reviews, "list" for the top 20 by price of a filtered listing, "discounts" for the en-US discounts of
+ * the whole catalog and "review" posts a review of a random product. Run with -Dbench.threads=1,4,16 to load
+ * the server from more connections.</p>
+ *
+ * @author agent
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestApiBenchmark {
+    private static final String HEAD = " HTTP/1.1\r\nHost: localhost\r\n";
+
+    @Param({"10000"})
+    int catalogSize;
+
+    @Param({"product", "list", "discounts", "review"})
+    String endpoint;
+
+    private int port;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path root = Files.createTempDirectory("pm-bench-api");
+        CatalogFixture.writeSnapshot(root, catalogSize, 4);
+        CatalogFixture.useFolders(root);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        port = LoadClient.freePort();
+        LoadClient.startDaemon("bench-http-server", () -> new HTTPServer(port, root + "/").start());
+        LoadClient.awaitServer(port);
+    }
+
+    private byte[] request() {
+        int id = ThreadLocalRandom.current().nextInt(catalogSize) + 1;
+        String request = switch (endpoint) {
+            case "product" -> "GET /api/products/" + id + HEAD + "\r\n";
+            case "list" -> "GET /api/products?type=food&rating=3&sort=price&order=desc&limit=20" + HEAD + "\r\n";
+            case "discounts" -> "GET /api/discounts?lang=en-US" + HEAD + "\r\n";
+            default -> {
+                String body = "{\"rating\":" + (id % 5 + 1) + ",\"comment\":\"Benchmark review\"}";
+                yield "POST /api/products/" + id + "/reviews" + HEAD + "Content-Type: application/json\r\nContent-Length: "
+                        + body.length() + "\r\n\r\n" + body;
+            }
+        };
+        return request.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private KeepAliveClient connection;
+        private byte[][] requests;
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void connect(final RestApiBenchmark benchmark) throws IOException {
+            requests = new byte[1024][];
+            for (int i = 0; i < requests.length; i++) requests[i] = benchmark.request();
+            connection = new KeepAliveClient(benchmark.port);
+            connection.open();
+        }
+
+        @TearDown(Level.Iteration)
+        public void disconnect() throws IOException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public long request(final Client client) throws IOException {
+        client.connection.write(client.requests[client.next++ & (client.requests.length - 1)]);
+        long length = client.connection.readResponse();
+        if (client.connection.status() >= 300) throw new IOException("Unexpected status " + client.connection.status());
+        client.connection.reopenIfClosed();
+        return length;
+    }
+}
@@ -0,0 +1,137 @@
+package labs.pm.utils.http;
+
+import labs.pm.data.CatalogFixture;
+import labs.pm.data.CommodityManager;
+import labs.pm.data.Rateable;
+import labs.pm.utils.concurrent.ThreadMode;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Platform against virtual threads at growing numbers of concurrent clients
+ * FileName: ThreadModeComparison.java
+ * Date/time: 18 октябрь 2026 in 19:10
+ * <p>Not a JMH benchmark: ten thousand clients at once need their own harness. Usage:
+ * ThreadModeComparison [http|shop|all] [clients, default 100,1000,10000] [rounds, default 5].
+ * "http" bursts all clients at the thread per connection HTTPServer, "shop" runs the Shop client (discounts,
+ * review, report) with a thread per client against a 1000 product catalog. Every round starts all clients
+ * at once, the first round is a warm-up. Prints throughput and latency percentiles per mode and client count.
+ * Virtual threads need a Java 21 runtime, on older ones the virtual rows show the platform fallback.
+ * A burst of n HTTP clients holds 2n sockets in this process, check ulimit -n. The HTTP servers run without
+ * admission limits, OverloadComparison shows those.</p>
+ *
+ * @author agent
+ */
+
+public class ThreadModeComparison {
+
+    private static final String[] LANGUAGES = {"en-UK", "ru-RU"};
+    private static final int PRODUCTS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        String scenario = args.length > 0 ? args[0] : "all";
+        int[] clients = Arrays.stream((args.length > 1 ? args[1] : "100,1000,10000").split(","))
+                .mapToInt(c -> Integer.parseInt(c.trim())).toArray();
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        Path root = Files.createTempDirectory("pm-thread-modes");
+        System.out.printf("Java %d, virtual threads %s%n", Runtime.version().feature(),
+                ThreadMode.isVirtualAvailable() ? "available" : "not available, falling back to platform threads");
+        System.out.printf("%-6s %-9s %8s %9s %12s %10s %10s %10s%n",
+                "bench", "mode", "clients", "failed", "ops/s", "p50 ms", "p99 ms", "max ms");
+        if (!scenario.equals("shop")) http(root, clients, rounds);
+        if (!scenario.equals("http")) shop(root, clients, rounds);
+    }
+
+    private static void http(final Path root, final int[] clients, final int rounds) throws Exception {
+        Path directory = Files.createDirectories(root.resolve("www"));
+        Files.writeString(directory.resolve("index.html"), "<html><body>" + "x".repeat(4 * 1024) + "</body></html>");
+        byte[] request = "GET / HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        for (ThreadMode mode : ThreadMode.values()) {
+            int port = LoadClient.freePort();
+            LoadClient.startDaemon("bench-" + mode + "-server", () -> new HTTPServer(port, directory + "/", mode, AdmissionControl.unlimited()).start());
+            LoadClient.awaitServer(port);
+            for (int count : clients) {
+                long[] latencies = new long[count * (rounds - 1)];
+                long elapsed = 0;
+                for (int round = 0; round < rounds; round++) {
+                    long[] burst = new long[count];
+                    long start = System.nanoTime();
+                    LoadClient.burst(port, request, count, burst);
+                    if (round == 0) continue;
+                    elapsed += System.nanoTime() - start;
+                    System.arraycopy(burst, 0, latencies, (round - 1) * count, count);
+                }
+                report("http", mode, count, latencies, elapsed);
+            }
+        }
+    }
+
+    private static void shop(final Path root, final int[] clients, final int rounds) throws Exception {
+        Path shop = root.resolve("shop");
+        CatalogFixture.writeSnapshot(shop, PRODUCTS, 4);
+        CatalogFixture.useFolders(shop);
+        CommodityManager cm = CommodityManager.getInstance();
+        for (ThreadMode mode : ThreadMode.values()) {
+            for (int count : clients) {
+                long[] latencies = new long[count * (rounds - 1)];
+                long elapsed = 0;
+                for (int round = 0; round < rounds; round++) {
+                    List<Callable<Long>> tasks = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) tasks.add(() -> client(cm));
+                    ExecutorService executor = mode.newThreadPerTaskExecutor("client");
+                    long start = System.nanoTime();
+                    List<Future<Long>> results = executor.invokeAll(tasks);
+                    long took = System.nanoTime() - start;
+                    executor.shutdown();
+                    if (round == 0) continue;
+                    elapsed += took;
+                    for (int i = 0; i < count; i++) {
+                        try {
+                            latencies[(round - 1) * count + i] = results.get(i).get();
+                        } catch (Exception e) {
+                            latencies[(round - 1) * count + i] = -1;
+                        }
+                    }
+                }
+                report("shop", mode, count, latencies, elapsed);
+            }
+        }
+    }
+
+    private static long client(final CommodityManager cm) {
+        long start = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int productId = random.nextInt(PRODUCTS) + 1;
+        String languageTag = LANGUAGES[random.nextInt(LANGUAGES.length)];
+        cm.getDiscounts(languageTag);
+        cm.reviewProduct(productId, Rateable.convert(random.nextInt(5) + 1), "Some another review");
+        cm.printProductReport(productId, languageTag, "client");
+        return System.nanoTime() - start;
+    }
+
+    private static void report(final String bench, final ThreadMode mode, final int clients,
+                               final long[] latencies, final long elapsed) {
+        long[] completed = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+        int failed = latencies.length - completed.length;
+        System.out.printf("%-6s %-9s %8d %9d %12.1f %10.2f %10.2f %10.2f%n", bench,
+                mode == ThreadMode.VIRTUAL && !ThreadMode.isVirtualAvailable() ? "virtual*" : mode.name().toLowerCase(),
+                clients, failed, completed.length * 1e9 / Math.max(elapsed, 1),
+                percentile(completed, 0.50), percentile(completed, 0.99),
+                completed.length == 0 ? 0.0 : completed[completed.length - 1] / 1e6);
+    }
+
+    private static double percentile(final long[] sorted, final double fraction) {
+        if (sorted.length == 0) return 0.0;
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
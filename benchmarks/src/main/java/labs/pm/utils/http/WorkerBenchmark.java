@@ -0,0 +1,72 @@
+package labs.pm.utils.http;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of one static file request through HTTPServer and Worker
+ * FileName: WorkerBenchmark.java
+ * Date/time: 18 октябрь 2026 in 19:02
+ * <p>large.bin (4 MB) is above the in-memory cache limit and goes out with transferTo, conditional=true sends
+ * the ETag of the file so the server answers 304 without a body.</p>
+ *
+ * @author agent
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkerBenchmark {
+
+    @Param({"hello.txt", "index.html", "large.bin", "missing.txt"})
+    String file;
+
+    @Param({"false", "true"})
+    boolean conditional;
+
+    private int port;
+    private byte[] request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path directory = Files.createTempDirectory("pm-bench-http");
+        Files.writeString(directory.resolve("hello.txt"), "Access!!! Congratulations!!!");
+        Files.writeString(directory.resolve("index.html"), "<html><body>" + "x".repeat(16 * 1024) + "</body></html>");
+        Files.write(directory.resolve("large.bin"), new byte[4 << 20]);
+        String validator = "";
+        if (conditional) {
+            FileCache.Entry entry = FileCache.of(directory.toString()).lookup("/" + file, true);
+            if (entry != null) validator = "If-None-Match: " + entry.etag() + "\r\n";
+        }
+        port = LoadClient.freePort();
+        LoadClient.startDaemon("bench-http-server", () -> new HTTPServer(port, directory + "/").start());
+        request = ("GET /" + file + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n" + validator + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        LoadClient.awaitServer(port);
+    }
+
+    @Benchmark
+    public long request() throws IOException {
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(request);
+            out.flush();
+            InputStream in = socket.getInputStream();
+            byte[] buffer = new byte[8192];
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) > 0) total += read;
+            return total;
+        }
+    }
+}